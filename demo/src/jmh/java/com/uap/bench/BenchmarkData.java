@@ -0,0 +1,48 @@
+package com.uap.bench;
+
+import com.uap.model.Task;
+import com.uap.tools.TaskGenerator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/** Synthetic tasks from {@link TaskGenerator} and scratch data directories for the benchmarks. */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static List<Task> tasks(int count) {
+        return new TaskGenerator(42).generate(count);
+    }
+
+    /** Writes {@code tasks} as the CSV data file in a fresh temporary directory. */
+    static File writeCsv(List<Task> tasks) throws IOException {
+        Path dir = Files.createTempDirectory("uap-bench");
+        File csv = dir.resolve("tasks_data.csv").toFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(csv.toPath(), StandardCharsets.UTF_8)) {
+            for (Task task : tasks) {
+                writer.write(task.toCSV());
+                writer.newLine();
+            }
+        }
+        return csv;
+    }
+
+    static void deleteDirectory(File dir) throws IOException {
+        if (dir == null || !dir.exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
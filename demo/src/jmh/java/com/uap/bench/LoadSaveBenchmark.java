@@ -0,0 +1,92 @@
+package com.uap.bench;
+
+import com.uap.data.BinarySnapshot;
+import com.uap.data.DataManager;
+import com.uap.data.DurabilityPolicy;
+import com.uap.data.TaskFileLoader;
+import com.uap.data.TaskStore;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cold start from the binary snapshot or the CSV file, and writing both formats back out. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-XX:MaxDirectMemorySize=4g" })
+public class LoadSaveBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int tasks;
+
+    @Param({ "list", "columnar", "offheap" })
+    public String store;
+
+    private File csv;
+    private File exportTarget;
+    private File snapshotTarget;
+    private DataManager loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        csv = BenchmarkData.writeCsv(BenchmarkData.tasks(tasks));
+        exportTarget = new File(csv.getParentFile(), "export.csv");
+        snapshotTarget = new File(csv.getParentFile(), "snapshot.bin");
+        // The first open migrates the CSV to tasks_data.bin, which later opens read.
+        loaded = open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loaded.close();
+        BenchmarkData.deleteDirectory(csv.getParentFile());
+    }
+
+    private DataManager open() {
+        return new DataManager(csv.getPath(), DurabilityPolicy.onIdle(), TaskStore.create(store));
+    }
+
+    @Benchmark
+    public long loadFromBinarySnapshot() {
+        DataManager dm = open();
+        long count = dm.countTasks();
+        dm.close();
+        return count;
+    }
+
+    @Benchmark
+    public int parseCsv() throws IOException {
+        List<Task> parsed = TaskFileLoader.load(csv);
+        return parsed.size();
+    }
+
+    @Benchmark
+    public long writeBinarySnapshot() throws IOException {
+        BinarySnapshot.write(snapshotTarget, loaded.getTasks(), tasks);
+        return snapshotTarget.length();
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        loaded.exportCsv(exportTarget);
+        return exportTarget.length();
+    }
+}
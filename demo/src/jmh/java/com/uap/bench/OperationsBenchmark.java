@@ -0,0 +1,114 @@
+package com.uap.bench;
+
+import com.uap.data.DataManager;
+import com.uap.data.DurabilityPolicy;
+import com.uap.data.TaskStore;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single operations against a loaded DataManager. Journal writes go through
+ * {@link DurabilityPolicy#onIdle()} so the numbers show the in-memory cost,
+ * not fsync latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-XX:MaxDirectMemorySize=4g" })
+public class OperationsBenchmark {
+    private static final String[] QUERIES = { "laporan", "rap", "kode review", "bug server modul", "zzz" };
+
+    @Param({ "1000", "100000", "1000000" })
+    public int tasks;
+
+    @Param({ "list", "columnar", "offheap" })
+    public String store;
+
+    private File csv;
+    private DataManager dm;
+    private Task[] originals;
+    private int next;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Task> generated = BenchmarkData.tasks(tasks);
+        originals = generated.toArray(new Task[0]);
+        csv = BenchmarkData.writeCsv(generated);
+        dm = new DataManager(csv.getPath(), DurabilityPolicy.onIdle(), TaskStore.create(store));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dm.close();
+        BenchmarkData.deleteDirectory(csv.getParentFile());
+    }
+
+    private Task nextTask() {
+        int i = next;
+        next = i + 1 == originals.length ? 0 : i + 1;
+        return originals[i];
+    }
+
+    @Benchmark
+    public String generateUniqueId() {
+        return dm.generateUniqueId();
+    }
+
+    @Benchmark
+    public Task findTask() {
+        return dm.findTask(nextTask().getId());
+    }
+
+    @Benchmark
+    public Object updateTask() {
+        Task task = nextTask();
+        return dm.updateTask(task.getId(), task);
+    }
+
+    /** Deletes a task and adds it back, so the data set keeps its size. */
+    @Benchmark
+    public Object deleteAndReAddTask() {
+        Task task = nextTask();
+        dm.deleteTask(task.getId());
+        return dm.addTask(task);
+    }
+
+    @Benchmark
+    public long countCompleted() {
+        return dm.countCompleted();
+    }
+
+    @Benchmark
+    public long countPending() {
+        return dm.countPending();
+    }
+
+    @Benchmark
+    public Set<String> search() {
+        String query = QUERIES[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERIES.length;
+        return dm.search(query);
+    }
+}
@@ -0,0 +1,60 @@
+package com.uap.bench;
+
+import com.uap.model.Task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Per-record CSV encode and decode, cycling through the whole data set. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskCsvBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int tasks;
+
+    private Task[] records;
+    private String[] lines;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Task> generated = BenchmarkData.tasks(tasks);
+        records = generated.toArray(new Task[0]);
+        lines = new String[records.length];
+        for (int i = 0; i < records.length; i++) {
+            lines[i] = records[i].toCSV();
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == records.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public String toCsv() {
+        return records[nextIndex()].toCSV();
+    }
+
+    @Benchmark
+    public Task fromCsv() {
+        return Task.fromCSV(lines[nextIndex()]);
+    }
+}
@@ -1,7 +1,12 @@
 package com.uap.app;
 
 import com.uap.data.DataManager;
+import com.uap.data.DurabilityPolicy;
+import com.uap.data.TaskStore;
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
 import com.uap.model.Task;
+import com.uap.ui.EdtWatchdog;
 import com.uap.ui.UIColors;
 import com.uap.ui.panels.AddTaskPanel;
 import com.uap.ui.panels.DashboardPanel;
@@ -9,6 +14,7 @@ import com.uap.ui.panels.HistoryPanel;
 import com.uap.ui.panels.TaskListPanel;
 
 import java.awt.*;
+import java.io.File;
 
 import java.util.function.Consumer;
 
@@ -16,23 +22,57 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
 public class ToDoApp extends JFrame {
+    private static final String TITLE = "To-Do List Manager";
+    private static final LatencyHistogram FIRST_PAINT_TIME = Metrics.timer("ui.first.paint");
+
     private final CardLayout cardLayout;
     private final JPanel mainContentPanel;
     private final DataManager dataManager;
+    private final long startedAt;
+    private boolean painted;
 
     private final DashboardPanel dashboardPanel;
     private final TaskListPanel taskListPanel;
-    private final AddTaskPanel addTaskPanel;
-    private final HistoryPanel historyPanel;
+    // Built when first opened.
+    private AddTaskPanel addTaskPanel;
+    private HistoryPanel historyPanel;
 
     public ToDoApp() {
-        dataManager = new DataManager();
+        this(System.nanoTime());
+    }
 
-        setTitle("To-Do List Manager");
+    /** {@code startedAt} is the {@link System#nanoTime()} the first paint is measured from. */
+    public ToDoApp(long startedAt) {
+        this.startedAt = startedAt;
+        // -Duap.store=columnar keeps tasks in primitive columns instead of one object per task;
+        // -Duap.store=offheap keeps them outside the Java heap altogether. -Duap.data moves the data file;
+        // -Duap.shared=true lets several instances (e.g. on a shared drive) use it at the same time.
+        String dataFile = System.getProperty("uap.data", DataManager.FILE_NAME);
+        TaskStore store = TaskStore.create(System.getProperty("uap.store", "list"));
+        // The window opens at once; tasks fill in on the EDT as the background loader reads them.
+        dataManager = DataManager.openInBackground(dataFile, DurabilityPolicy.everyCommit(), store,
+                Boolean.getBoolean("uap.shared"), SwingUtilities::invokeLater);
+        // Metrics are always visible over JMX; -Duap.metrics.log=<seconds> also prints them periodically.
+        Metrics.registerMBean();
+        long metricsPeriod = Long.getLong("uap.metrics.log", 0);
+        if (metricsPeriod > 0) {
+            Metrics.startLogging(metricsPeriod, System.out::print);
+        }
+        dataManager.setPersistenceErrorHandler(e -> SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(
+                this, "Could not load or save tasks: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)));
+
+        setTitle(TITLE + " (loading...)");
+        dataManager.whenLoaded().thenRun(() -> setTitle(TITLE));
         setSize(1000, 650);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                dataManager.close();
+            }
+        });
 
         JPanel sidebar = new JPanel();
         sidebar.setBackground(UIColors.SIDEBAR_COLOR);
@@ -50,26 +90,21 @@ public class ToDoApp extends JFrame {
         mainContentPanel = new JPanel(cardLayout);
         mainContentPanel.setBackground(UIColors.BG_COLOR);
 
-        Consumer<String> showCard = cardName -> cardLayout.show(mainContentPanel, cardName);
-        Runnable refreshAll = this::refreshAll;
+        Consumer<String> showCard = this::showCard;
 
         dashboardPanel = new DashboardPanel(dataManager);
-        addTaskPanel = new AddTaskPanel(dataManager, refreshAll, showCard);
-        taskListPanel = new TaskListPanel(dataManager, refreshAll, (Task task) -> {
-            addTaskPanel.startEdit(task);
+        taskListPanel = new TaskListPanel(dataManager, (Task task) -> {
+            addTaskPanel().startEdit(task);
             showCard.accept("ADD");
         });
-        historyPanel = new HistoryPanel(dataManager);
 
         mainContentPanel.add(dashboardPanel, "DASHBOARD");
         mainContentPanel.add(taskListPanel, "LIST");
-        mainContentPanel.add(addTaskPanel, "ADD");
-        mainContentPanel.add(historyPanel, "HISTORY");
 
-        sidebar.add(createNavButton("Dashboard", "DASHBOARD", showCard, refreshAll));
-        sidebar.add(createNavButton("Task List", "LIST", showCard, refreshAll));
-        sidebar.add(createNavButton("Add Task", "ADD", showCard, refreshAll));
-        sidebar.add(createNavButton("History", "HISTORY", showCard, refreshAll));
+        sidebar.add(createNavButton("Dashboard", "DASHBOARD", showCard));
+        sidebar.add(createNavButton("Task List", "LIST", showCard));
+        sidebar.add(createNavButton("Add Task", "ADD", showCard));
+        sidebar.add(createNavButton("History", "HISTORY", showCard));
         sidebar.add(Box.createVerticalGlue());
 
         JLabel footer = new JLabel("© 2025 UAP Project");
@@ -80,11 +115,36 @@ public class ToDoApp extends JFrame {
 
         add(sidebar, BorderLayout.WEST);
         add(mainContentPanel, BorderLayout.CENTER);
+    }
+
+    private void showCard(String cardName) {
+        if (cardName.equals("ADD")) {
+            addTaskPanel();
+        } else if (cardName.equals("HISTORY") && historyPanel == null) {
+            historyPanel = new HistoryPanel(dataManager);
+            mainContentPanel.add(historyPanel, "HISTORY");
+        }
+        cardLayout.show(mainContentPanel, cardName);
+    }
 
-        refreshAll();
+    private AddTaskPanel addTaskPanel() {
+        if (addTaskPanel == null) {
+            addTaskPanel = new AddTaskPanel(dataManager, this::showCard);
+            mainContentPanel.add(addTaskPanel, "ADD");
+        }
+        return addTaskPanel;
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            FIRST_PAINT_TIME.stop(startedAt);
+        }
     }
 
-    private JButton createNavButton(String text, String cardName, Consumer<String> showCard, Runnable refreshAll) {
+    private JButton createNavButton(String text, String cardName, Consumer<String> showCard) {
         JButton btn = new JButton(text);
         btn.setAlignmentX(Component.CENTER_ALIGNMENT);
         btn.setMaximumSize(new Dimension(220, 50));
@@ -107,31 +167,29 @@ public class ToDoApp extends JFrame {
             }
         });
 
-        btn.addActionListener(e -> {
-            refreshAll.run();
-            showCard.accept(cardName);
-        });
+        btn.addActionListener(e -> showCard.accept(cardName));
 
         return btn;
     }
 
-    private void refreshAll() {
-        dashboardPanel.updateStats();
-        taskListPanel.loadTableData();
-        historyPanel.loadHistory();
-    }
-
     public static void main(String[] args) {
         launch();
     }
 
     public static void launch() {
+        long start = System.nanoTime();
         try {
             UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
         } catch (Exception ignored) {
         }
 
-        SwingUtilities.invokeLater(() -> new ToDoApp().setVisible(true));
+        // Events that block the EDT longer than this are logged with a stack trace; 0 turns it off.
+        long stallThresholdMs = Long.getLong("uap.edt.threshold", 300);
+        if (stallThresholdMs > 0) {
+            EdtWatchdog.install(stallThresholdMs, new File("edt-stalls.log"));
+        }
+
+        SwingUtilities.invokeLater(() -> new ToDoApp(start).setVisible(true));
     }
 
 }
@@ -0,0 +1,263 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary snapshot of all tasks.
+ *
+ * <pre>
+ * header  magic "UAPT" | u16 version | u16 reserved | i64 record count
+ *         | i64 last issued id | i64 payload length | i64 CRC32 of payload
+ * record  str id | str title | str description | u8 priority | u8 status
+ *         | i32 created epoch day | i32 due epoch day
+ * str     varint (byte length + 1, 0 for null), UTF-8 bytes
+ * </pre>
+ *
+ * Priority and status are one-byte codes; values outside the known set are
+ * stored as {@link #CUSTOM} followed by the string.
+ */
+public final class BinarySnapshot {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x55415054;
+    private static final int HEADER_SIZE = 40;
+    private static final int CUSTOM = 0xFF;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final String[] PRIORITIES = { "High", "Medium", "Low" };
+    private static final String[] STATUSES = { "Pending", "Completed" };
+
+    public static final class Contents {
+        private final List<Task> tasks;
+        private final long lastId;
+
+        Contents(List<Task> tasks, long lastId) {
+            this.tasks = tasks;
+            this.lastId = lastId;
+        }
+
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+    }
+
+    private BinarySnapshot() {
+    }
+
+    public static File fileFor(File csvFile) {
+        String path = csvFile.getPath();
+        return new File(path.endsWith(".csv") ? path.substring(0, path.length() - 4) + ".bin" : path + ".bin");
+    }
+
+    public static void write(File file, List<Task> tasks, long lastId) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            CountingOutputStream counter = new CountingOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(counter, 1 << 16));
+            for (Task task : tasks) {
+                writeString(out, task.getId());
+                writeString(out, task.getTitle());
+                writeString(out, task.getDescription());
+                writeCode(out, task.getPriority(), PRIORITIES);
+                writeCode(out, task.getStatus(), STATUSES);
+                out.writeInt(task.getCreatedDate() == null ? NO_DATE : (int) task.getCreatedDate().toEpochDay());
+                out.writeInt(task.getDueDate() == null ? NO_DATE : (int) task.getDueDate().toEpochDay());
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0).putLong(tasks.size()).putLong(lastId)
+                    .putLong(counter.count).putLong(crc.getValue());
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Reads and verifies a snapshot; any structural or checksum problem is an IOException. */
+    public static Contents read(File file) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        long lastId = read(file, tasks::add);
+        return new Contents(tasks, lastId);
+    }
+
+    /**
+     * Like {@link #read(File)}, but hands each task to {@code sink} as it is
+     * decoded and returns the last issued id. The checksum is verified before
+     * the first task is decoded.
+     */
+    public static long read(File file, Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Snapshot too short: " + file);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            int version = header.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            header.getShort();
+            long count = header.getLong();
+            long lastId = header.getLong();
+            long length = header.getLong();
+            long checksum = header.getLong();
+            if (length != size - HEADER_SIZE || count < 0 || count > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot header does not match file size: " + file);
+            }
+
+            MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+
+            try {
+                decode(payload, (int) count, sink);
+                return lastId;
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt snapshot record in " + file, e);
+            }
+        }
+    }
+
+    private static void decode(ByteBuffer in, int count, Consumer<Task> sink) {
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < count; i++) {
+            String id = readString(in, scratch);
+            String title = readString(in, scratch);
+            String description = readString(in, scratch);
+            String priority = readCode(in, PRIORITIES, scratch);
+            String status = readCode(in, STATUSES, scratch);
+            int created = in.getInt();
+            int due = in.getInt();
+            sink.accept(new Task(id, title, description, priority, status,
+                    created == NO_DATE ? null : LocalDate.ofEpochDay(created),
+                    due == NO_DATE ? null : LocalDate.ofEpochDay(due)));
+        }
+    }
+
+    private static void writeCode(DataOutputStream out, String value, String[] known) throws IOException {
+        for (int i = 0; i < known.length; i++) {
+            if (known[i].equals(value)) {
+                out.writeByte(i);
+                return;
+            }
+        }
+        out.writeByte(CUSTOM);
+        writeString(out, value);
+    }
+
+    private static String readCode(ByteBuffer in, String[] known, byte[] scratch) {
+        int code = in.get() & 0xFF;
+        return code == CUSTOM ? readString(in, scratch) : known[code];
+    }
+
+    // Lengths are shifted by one so that 0 can mark a null string.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch) {
+        int length = readVarint(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length == 0) {
+            return "";
+        }
+        byte[] buf = length <= scratch.length ? scratch : new byte[length];
+        in.get(buf, 0, length);
+        return new String(buf, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays task storage: one primitive column per field instead of a
+ * {@link Task} object per row.
+ *
+ * <ul>
+ * <li>IDs that are plain non-negative ints are stored as ints and found through
+ * a primitive hash; any other ID is kept in the string arena.</li>
+ * <li>Priority and status are one-byte codes into a shared dictionary.</li>
+ * <li>Dates are epoch days.</li>
+ * <li>Title and description are UTF-8 in one append-only byte arena that is
+ * rewritten once more than half of it is garbage.</li>
+ * </ul>
+ *
+ * {@link #get} decodes a fresh {@link Task} every call.
+ */
+public class ColumnarTaskStore implements TaskStore {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NULL_REF = -1;
+    private static final int NULL_CODE = 0xFF;
+    private static final int MIN_ARENA_COMPACT = 1 << 20;
+
+    private int size;
+    private int[] ids;
+    private byte[] priorities;
+    private byte[] statuses;
+    private int[] created;
+    private int[] due;
+    private int[] titles;
+    private int[] descriptions;
+
+    private byte[] arena;
+    private int arenaLength;
+    private long liveBytes;
+
+    private final List<String> dictionary;
+    private final Map<String, Integer> codes;
+    private final IntIntHashMap idIndex;
+    private final Map<String, Integer> otherIdIndex;
+
+    public ColumnarTaskStore() {
+        this(1024);
+    }
+
+    public ColumnarTaskStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        ids = new int[capacity];
+        priorities = new byte[capacity];
+        statuses = new byte[capacity];
+        created = new int[capacity];
+        due = new int[capacity];
+        titles = new int[capacity];
+        descriptions = new int[capacity];
+        arena = new byte[Math.max(1024, capacity * 32)];
+        dictionary = new ArrayList<>();
+        codes = new HashMap<>();
+        idIndex = new IntIntHashMap(capacity);
+        otherIdIndex = new HashMap<>();
+    }
+
+    // Frozen copy: columns are copied, the append-only arena is shared up to arenaLength.
+    private ColumnarTaskStore(ColumnarTaskStore source) {
+        size = source.size;
+        ids = Arrays.copyOf(source.ids, size);
+        priorities = Arrays.copyOf(source.priorities, size);
+        statuses = Arrays.copyOf(source.statuses, size);
+        created = Arrays.copyOf(source.created, size);
+        due = Arrays.copyOf(source.due, size);
+        titles = Arrays.copyOf(source.titles, size);
+        descriptions = Arrays.copyOf(source.descriptions, size);
+        arena = source.arena;
+        arenaLength = source.arenaLength;
+        dictionary = new ArrayList<>(source.dictionary);
+        codes = null;
+        idIndex = null;
+        otherIdIndex = null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Task(idAt(index), readString(titles[index]), readString(descriptions[index]),
+                decode(priorities[index]), decode(statuses[index]), toDate(created[index]), toDate(due[index]));
+    }
+
+    @Override
+    public String idAt(int index) {
+        int id = ids[index];
+        return id >= 0 ? String.valueOf(id) : readString(-id - 1);
+    }
+
+    @Override
+    public String statusAt(int index) {
+        return decode(statuses[index]);
+    }
+
+    @Override
+    public int indexOf(String id) {
+        int numeric = plainInt(id);
+        if (numeric >= 0) {
+            return idIndex.get(numeric, -1);
+        }
+        Integer pos = otherIdIndex.get(id);
+        return pos == null ? -1 : pos;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (size == ids.length) {
+            grow();
+        }
+        encodeRow(size, task, true);
+        int index = size++;
+        index(index);
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        boolean idChanged = !previous.getId().equals(task.getId());
+        if (size == ids.length) {
+            grow();
+        }
+        // Encoded in the spare row past the end, so a failure leaves this row untouched.
+        ids[size] = ids[index];
+        encodeRow(size, task, idChanged);
+
+        if (idChanged) {
+            unindex(index);
+            releaseId(ids[index]);
+        }
+        release(titles[index]);
+        release(descriptions[index]);
+        copyRow(size, index);
+        if (idChanged) {
+            index(index);
+        }
+        compactArenaIfNeeded();
+        return previous;
+    }
+
+    @Override
+    public Task removeSwap(int index) {
+        Task removed = get(index);
+        unindex(index);
+        releaseId(ids[index]);
+        release(titles[index]);
+        release(descriptions[index]);
+
+        int last = --size;
+        if (index != last) {
+            copyRow(last, index);
+            index(index);
+        }
+        compactArenaIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public List<Task> freeze() {
+        ColumnarTaskStore copy = new ColumnarTaskStore(this);
+        return Collections.unmodifiableList(new AbstractList<Task>() {
+            @Override
+            public Task get(int index) {
+                return copy.get(index);
+            }
+
+            @Override
+            public int size() {
+                return copy.size;
+            }
+        });
+    }
+
+    /** Bytes held by the columns, the arena and the ID hash. */
+    public long footprintBytes() {
+        long perRow = 4 + 1 + 1 + 4 + 4 + 4 + 4;
+        return perRow * ids.length + arena.length + idIndex.footprintBytes();
+    }
+
+    /**
+     * Fills {@code row}, which no lookup reaches yet. Throws before changing
+     * anything else if the dictionary or the arena cannot take the task.
+     */
+    private void encodeRow(int row, Task task, boolean withId) {
+        checkCodes(task.getPriority(), task.getStatus());
+        int mark = arenaLength;
+        long live = liveBytes;
+        try {
+            if (withId) {
+                ids[row] = encodeId(task.getId());
+            }
+            titles[row] = appendString(task.getTitle());
+            descriptions[row] = appendString(task.getDescription());
+        } catch (RuntimeException e) {
+            arenaLength = mark;
+            liveBytes = live;
+            throw e;
+        }
+        priorities[row] = code(task.getPriority());
+        statuses[row] = code(task.getStatus());
+        created[row] = fromDate(task.getCreatedDate());
+        due[row] = fromDate(task.getDueDate());
+    }
+
+    private void copyRow(int from, int to) {
+        ids[to] = ids[from];
+        priorities[to] = priorities[from];
+        statuses[to] = statuses[from];
+        created[to] = created[from];
+        due[to] = due[from];
+        titles[to] = titles[from];
+        descriptions[to] = descriptions[from];
+    }
+
+    private void index(int index) {
+        int id = ids[index];
+        if (id >= 0) {
+            idIndex.put(id, index);
+        } else {
+            otherIdIndex.put(readString(-id - 1), index);
+        }
+    }
+
+    private void unindex(int index) {
+        int id = ids[index];
+        if (id >= 0) {
+            idIndex.remove(id);
+        } else {
+            otherIdIndex.remove(readString(-id - 1));
+        }
+    }
+
+    private int encodeId(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Task ID is required");
+        }
+        int numeric = plainInt(id);
+        return numeric >= 0 ? numeric : -appendString(id) - 1;
+    }
+
+    // Numeric IDs own no arena bytes; other IDs are stored as -(ref + 1).
+    private void releaseId(int id) {
+        if (id < 0) {
+            release(-id - 1);
+        }
+    }
+
+    private void release(int ref) {
+        if (ref != NULL_REF) {
+            liveBytes -= storedLength(arena, ref);
+        }
+    }
+
+    // Only the canonical decimal form maps to an int, so the ID round-trips unchanged.
+    private static int plainInt(String id) {
+        if (id == null || id.isEmpty() || id.length() > 10 || (id.length() > 1 && id.charAt(0) == '0')) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            int d = id.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value <= Integer.MAX_VALUE ? (int) value : -1;
+    }
+
+    private void checkCodes(String priority, String status) {
+        int added = 0;
+        if (priority != null && !codes.containsKey(priority)) {
+            added++;
+        }
+        if (status != null && !codes.containsKey(status) && !status.equals(priority)) {
+            added++;
+        }
+        if (dictionary.size() + added > NULL_CODE) {
+            throw new IllegalStateException("More than " + NULL_CODE + " distinct priority/status values");
+        }
+    }
+
+    private byte code(String value) {
+        if (value == null) {
+            return (byte) NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        return (byte) (int) code;
+    }
+
+    private String decode(byte code) {
+        int c = code & 0xFF;
+        return c == NULL_CODE ? null : dictionary.get(c);
+    }
+
+    private static int fromDate(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    // Arena entries are a varint byte length followed by the UTF-8 bytes.
+    private int appendString(String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int needed = 5 + bytes.length;
+        if (arenaLength + needed > arena.length) {
+            long capacity = Math.max((long) arena.length * 3 / 2, (long) arenaLength + needed);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("String arena full");
+            }
+            arena = Arrays.copyOf(arena, (int) capacity);
+        }
+
+        int ref = arenaLength;
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            arena[arenaLength++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        arena[arenaLength++] = (byte) length;
+        System.arraycopy(bytes, 0, arena, arenaLength, bytes.length);
+        arenaLength += bytes.length;
+        liveBytes += arenaLength - ref;
+        return ref;
+    }
+
+    private String readString(int ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        int pos = ref;
+        int length = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = arena[pos++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return length == 0 ? "" : new String(arena, pos, length, StandardCharsets.UTF_8);
+    }
+
+    private static int storedLength(byte[] arena, int ref) {
+        int pos = ref;
+        int length = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = arena[pos++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return pos - ref + length;
+    }
+
+    // Copies live strings into a new array, so frozen copies sharing the old one stay valid.
+    private void compactArenaIfNeeded() {
+        if (arenaLength < MIN_ARENA_COMPACT || liveBytes * 2 > arenaLength) {
+            return;
+        }
+
+        byte[] old = arena;
+        arena = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, liveBytes * 3 / 2))];
+        arenaLength = 0;
+        liveBytes = 0;
+        for (int i = 0; i < size; i++) {
+            titles[i] = moveString(old, titles[i]);
+            descriptions[i] = moveString(old, descriptions[i]);
+            if (ids[i] < 0) {
+                ids[i] = -moveString(old, -ids[i] - 1) - 1;
+            }
+        }
+    }
+
+    private int moveString(byte[] from, int ref) {
+        if (ref == NULL_REF) {
+            return NULL_REF;
+        }
+        int length = storedLength(from, ref);
+        int moved = arenaLength;
+        System.arraycopy(from, ref, arena, arenaLength, length);
+        arenaLength += length;
+        liveBytes += length;
+        return moved;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        created = Arrays.copyOf(created, capacity);
+        due = Arrays.copyOf(due, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+}
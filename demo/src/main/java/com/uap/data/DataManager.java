@@ -1,108 +1,1195 @@
 package com.uap.data;
 
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
 import com.uap.model.Task;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 public class DataManager {
-    private static final String FILE_NAME = "tasks_data.csv";
+    public static final String FILE_NAME = "tasks_data.csv";
+    /** Length of the "due this week" window, starting today. */
+    public static final int DUE_SOON_DAYS = 7;
 
-    private final List<Task> tasks;
+    private static final LatencyHistogram LOAD_TIME = Metrics.timer("data.load");
+    private static final LatencyHistogram LOAD_SNAPSHOT_TIME = Metrics.timer("data.load.snapshot");
+    private static final LatencyHistogram LOAD_CSV_TIME = Metrics.timer("data.load.csv");
+    private static final LatencyHistogram LOAD_REPLAY_TIME = Metrics.timer("data.load.replay");
+    private static final LatencyHistogram PUBLISH_TIME = Metrics.timer("data.publish");
+    private static final LatencyHistogram SEARCH_TIME = Metrics.timer("data.search");
+    private static final LatencyHistogram DUE_QUERY_TIME = Metrics.timer("data.due.query");
+    private static final LatencyHistogram SNAPSHOT_TIME = Metrics.timer("data.snapshot");
+    private static final LatencyHistogram FIRST_CHUNK_TIME = Metrics.timer("data.load.first.chunk");
+    private static final LatencyHistogram BULK_SIZE = Metrics.size("data.bulk.tasks");
+    private static final LongAdder CHANGES = Metrics.counter("data.changes");
+
+    // Background loading: listeners first hear of this many tasks, then of twice as many each time.
+    private static final int FIRST_LOAD_CHUNK = 1024;
+    // Most tasks applied by one task on the owning thread, so input events get through in between.
+    private static final int MAX_LOAD_SLICE = 8192;
+
+    // Every change and every read of the live state holds the lock; snapshots are read without it.
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile TaskSnapshot snapshot;
+    private final TaskStore store;
+    private final Map<String, Long> statusCounts;
+    private final Map<String, Long> priorityCounts;
+    // Null for a store that keeps the heap flat; queries then scan the store.
+    private final TaskSearchIndex searchIndex;
+    private final DueDateIndex completedIndex;
+    private final DueDateIndex openIndex;
+    // Open tasks due per day, by month; the last slot holds the month total.
+    private final Map<Integer, int[]> dueHistogram = new HashMap<>();
+    private final File dataFile;
+    private final TaskJournal journal;
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private List<TaskChangeEvent> pending = new ArrayList<>();
+    private int batchDepth;
+    private volatile boolean loaded;
+    private final boolean progressive;
+    private final CompletableFuture<Void> whenLoaded = new CompletableFuture<>();
+    private volatile long version;
+    private final StringBuilder pendingRecords = new StringBuilder();
+    private CompletableFuture<Void> pendingCommit = new CompletableFuture<>();
+    private volatile Consumer<IOException> persistenceErrorHandler = Throwable::printStackTrace;
+    private long lastId;
+    private final LongSupplier taskCountGauge = this::countTasks;
+
+    // Shared mode only: how remote changes reach this instance, and which IDs
+    // have local commits that are not in the file yet.
+    private final Executor sharedUpdates;
+    private final JournalTailer tailer;
+    private final Map<String, Integer> unwrittenIds = new ConcurrentHashMap<>();
+    private List<String> pendingIds = new ArrayList<>();
 
     public DataManager() {
-        tasks = new ArrayList<>();
-        loadData();
+        this(FILE_NAME);
+    }
+
+    public DataManager(String fileName) {
+        this(new File(fileName), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    public DataManager(String fileName, DurabilityPolicy durability) {
+        this(new File(fileName), TaskJournal.DEFAULT_COMPACT_THRESHOLD, durability);
+    }
+
+    DataManager(File dataFile, long compactThreshold) {
+        this(dataFile, compactThreshold, DurabilityPolicy.everyCommit());
+    }
+
+    /** {@code store} must be empty; use {@link ColumnarTaskStore} to keep large data sets compact. */
+    public DataManager(String fileName, DurabilityPolicy durability, TaskStore store) {
+        this(new File(fileName), TaskJournal.DEFAULT_COMPACT_THRESHOLD, durability, store);
+    }
+
+    DataManager(File dataFile, long compactThreshold, DurabilityPolicy durability) {
+        this(dataFile, compactThreshold, durability, new ListTaskStore());
+    }
+
+    DataManager(File dataFile, long compactThreshold, DurabilityPolicy durability, TaskStore store) {
+        this(dataFile, compactThreshold, durability, store, null);
+    }
+
+    DataManager(File dataFile, long compactThreshold, DurabilityPolicy durability, TaskStore store,
+            Executor sharedUpdates) {
+        this(dataFile, compactThreshold, durability, store, sharedUpdates, null);
+    }
+
+    DataManager(File dataFile, long compactThreshold, DurabilityPolicy durability, TaskStore store,
+            Executor sharedUpdates, Executor loadUpdates) {
+        this.dataFile = dataFile;
+        this.store = store;
+        boolean indexed = store.allowsHeapIndexes();
+        this.searchIndex = indexed ? new TaskSearchIndex() : null;
+        this.completedIndex = indexed ? new DueDateIndex() : null;
+        this.openIndex = indexed ? new DueDateIndex() : null;
+        this.statusCounts = new HashMap<>();
+        this.priorityCounts = new HashMap<>();
+        this.sharedUpdates = sharedUpdates;
+        this.journal = new TaskJournal(dataFile, compactThreshold, durability, e -> persistenceErrorHandler.accept(e),
+                sharedUpdates != null);
+        this.tailer = sharedUpdates == null ? null
+                : new JournalTailer(journal, this::receiveRecords, this::receiveResync,
+                        e -> persistenceErrorHandler.accept(e));
+        this.progressive = loadUpdates != null;
+        Metrics.gauge("data.tasks", taskCountGauge);
+        if (progressive) {
+            Thread loader = new Thread(() -> loadInBackground(loadUpdates), "task-loader");
+            loader.setDaemon(true);
+            loader.start();
+        } else {
+            loadData();
+            whenLoaded.complete(null);
+        }
+    }
+
+    /**
+     * Opens {@code fileName} for use by several processes at once, for
+     * example from a shared drive. Every commit is written under a lock file
+     * and synced, new IDs come from the shared sequence file, and changes
+     * made by other processes are applied here within about
+     * {@link JournalTailer#POLL_MILLIS} ms. They run on {@code updates}, which
+     * must be the thread that uses this DataManager (the EDT in the app), so
+     * listeners see them like local changes.
+     */
+    public static DataManager openShared(String fileName, TaskStore store, Executor updates) {
+        return new DataManager(new File(fileName), TaskJournal.DEFAULT_COMPACT_THRESHOLD,
+                DurabilityPolicy.everyCommit(), store, updates);
+    }
+
+    /**
+     * Opens {@code fileName} without waiting for it to be read. A background
+     * thread reads the files and applies the tasks on {@code updates}, which
+     * must be the thread that uses this DataManager, a slice at a time.
+     * Listeners hear of them as ordinary changes each time the number loaded
+     * doubles, so a view fills in while the rest is still being read and a
+     * sorted table re-sorts only a few times. Changes are refused with an
+     * {@link IllegalStateException} until {@link #whenLoaded()} completes.
+     * With {@code shared}, the data set is opened as by {@link #openShared}
+     * and remote changes run on {@code updates} as well.
+     */
+    public static DataManager openInBackground(String fileName, DurabilityPolicy durability, TaskStore store,
+            boolean shared, Executor updates) {
+        return new DataManager(new File(fileName), TaskJournal.DEFAULT_COMPACT_THRESHOLD,
+                shared ? DurabilityPolicy.everyCommit() : durability, store, shared ? updates : null, updates);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Completes on the owning thread once every task has been loaded; already complete unless opened in the background. */
+    public CompletableFuture<Void> whenLoaded() {
+        return whenLoaded;
+    }
+
+    /**
+     * Receives write failures from the persistence thread, and a note on CSV
+     * rows that could not be read on load; defaults to printing them.
+     */
+    public void setPersistenceErrorHandler(Consumer<IOException> handler) {
+        this.persistenceErrorHandler = handler;
+    }
+
+    /**
+     * Listeners run on the thread that made the change, before any other
+     * change can start; in the app every change is made on the EDT.
+     */
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(TaskChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Runs {@code changes} as one transaction: a single journal commit and a
+     * single published batch. The future completes when the commit is durable.
+     */
+    public CompletableFuture<Void> batch(Runnable changes) {
+        checkLoaded();
+        lock.lock();
+        try {
+            batchDepth++;
+            try {
+                changes.run();
+            } finally {
+                batchDepth--;
+            }
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> finish() {
+        if (batchDepth > 0) {
+            return pendingCommit;
+        }
+
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        if (pendingRecords.length() > 0) {
+            CompletableFuture<Void> commit = pendingCommit;
+            String records = pendingRecords.toString();
+            pendingRecords.setLength(0);
+            pendingCommit = new CompletableFuture<>();
+            List<String> ids = pendingIds;
+            if (!ids.isEmpty()) {
+                pendingIds = new ArrayList<>();
+                for (String id : ids) {
+                    unwrittenIds.merge(id, 1, Integer::sum);
+                }
+            }
+            journal.commit(records).whenComplete((ignored, error) -> {
+                for (String id : ids) {
+                    unwrittenIds.computeIfPresent(id, (k, n) -> n == 1 ? null : n - 1);
+                }
+                if (error != null) {
+                    commit.completeExceptionally(error);
+                } else {
+                    commit.complete(null);
+                }
+            });
+            compactIfNeeded();
+            done = commit;
+        }
+        publish();
+        return done;
+    }
+
+    private void publish() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        TaskChangeBatch batch = new TaskChangeBatch(pending, ++version);
+        dropSnapshot();
+        pending = new ArrayList<>();
+        CHANGES.add(batch.getEvents().size());
+        for (TaskChangeListener listener : listeners) {
+            listener.tasksChanged(batch);
+        }
+        PUBLISH_TIME.stop(start);
     }
 
+    private void record(TaskChangeEvent.Type type, Task task, Task previous, int index) {
+        if (loaded || progressive) {
+            pending.add(new TaskChangeEvent(type, task, previous, index));
+        }
+    }
+
+    /**
+     * All tasks in index order, as of the latest change; see {@link #snapshot()}.
+     * The snapshot behind the list is never closed, so an off-heap store
+     * reuses its memory only once the list is garbage collected.
+     */
     public List<Task> getTasks() {
+        return snapshot().getTasks();
+    }
+
+    /**
+     * Immutable copy of the current state that any thread may read without
+     * locking. The copy is made on the first call after a change and shared
+     * until the next one. Close it when done with it, so that the store can
+     * reuse what it shares with the copy.
+     */
+    public TaskSnapshot snapshot() {
+        TaskSnapshot current = snapshot;
+        if (current != null && current.retain()) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                long start = System.nanoTime();
+                List<Task> frozen = store.freeze();
+                snapshot = new TaskSnapshot(version, frozen, statusCounts, priorityCounts, () -> release(frozen));
+                SNAPSHOT_TIME.stop(start);
+            }
+            // The cached copy holds itself until the next change, so this cannot fail.
+            snapshot.retain();
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gives back the cached copy's own hold; readers that still hold it keep it until they close it.
+    private void dropSnapshot() {
+        TaskSnapshot dropped = snapshot;
+        if (dropped != null) {
+            snapshot = null;
+            dropped.close();
+        }
+    }
+
+    // Any thread: the last holder of a snapshot closes it.
+    private void release(List<Task> frozen) {
+        lock.lock();
+        try {
+            store.release(frozen);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read-only live view of the completed tasks, latest due date first and
+     * tasks without one last. Kept sorted as tasks change, so paging through
+     * it does not scan the other tasks; without heap indexes each page is
+     * picked out of a scan of the store.
+     */
+    public List<Task> getCompletedTasks() {
+        return new AbstractList<Task>() {
+            @Override
+            public Task get(int index) {
+                lock.lock();
+                try {
+                    if (completedIndex == null) {
+                        List<Task> page = getCompletedTasks(index, 1);
+                        if (page.isEmpty()) {
+                            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                        }
+                        return page.get(0);
+                    }
+                    return findTask(completedIndex.idAt(completedIndex.size() - 1 - index));
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            @Override
+            public int size() {
+                lock.lock();
+                try {
+                    return completedIndex == null ? (int) countCompleted() : completedIndex.size();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    /** Up to {@code count} completed tasks starting at {@code from}, in the order of {@link #getCompletedTasks()}. */
+    public List<Task> getCompletedTasks(int from, int count) {
+        lock.lock();
+        try {
+            if (completedIndex == null) {
+                return scanCompleted(from, count);
+            }
+            int size = completedIndex.size();
+            from = Math.min(from, size);
+            int end = Math.min(size, from + count);
+            List<String> ids = completedIndex.ids(size - end, size - from);
+            List<Task> page = new ArrayList<>(ids.size());
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                page.add(findTask(ids.get(i)));
+            }
+            return page;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tasks that are not completed and are due on or after {@code from} and
+     * before {@code until}, earliest first. A {@code null} bound is open;
+     * tasks without a due date are never included.
+     */
+    public List<Task> findDueBetween(LocalDate from, LocalDate until) {
+        List<String> ids = findDueIdList(from, until);
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            tasks.add(findTask(id));
+        }
         return tasks;
     }
 
-    public void addTask(Task task) {
-        tasks.add(task);
-        saveData();
+    /** IDs of the tasks {@link #findDueBetween} returns. */
+    public Set<String> findDueIdsBetween(LocalDate from, LocalDate until) {
+        return new HashSet<>(findDueIdList(from, until));
     }
 
-    public void updateTask(String id, Task updatedTask) {
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getId().equals(id)) {
-                tasks.set(i, updatedTask);
-                break;
+    public long countDueBetween(LocalDate from, LocalDate until) {
+        lock.lock();
+        try {
+            if (openIndex == null) {
+                return sumDue(fromDay(from), untilDay(until));
             }
+            return openIndex.rankOf(untilDay(until)) - openIndex.rankOf(fromDay(from));
+        } finally {
+            lock.unlock();
         }
-        saveData();
     }
 
-    public void deleteTask(String id) {
-        tasks.removeIf(t -> t.getId().equals(id));
-        saveData();
+    public long countOverdue(LocalDate today) {
+        return countDueBetween(null, today);
     }
 
-    public String generateUniqueId() {
-        int maxId = 0;
-        for (Task task : tasks) {
-            String existingId = task.getId();
-            if (existingId == null) {
+    public long countDueThisWeek(LocalDate today) {
+        return countDueBetween(today, today.plusDays(DUE_SOON_DAYS));
+    }
+
+    private List<String> findDueIdList(LocalDate from, LocalDate until) {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            List<String> ids = openIndex != null ? openIndex.idsBetween(fromDay(from), untilDay(until))
+                    : scanDue(fromDay(from), untilDay(until));
+            DUE_QUERY_TIME.stop(start);
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** A task's place in due-date order, for the queries that scan the store. */
+    private static final class DueEntry {
+        static final Comparator<DueEntry> ORDER = (a, b) -> DueDateIndex.compare(a.day, a.id, b.day, b.id);
+
+        final int day;
+        final String id;
+        final int row;
+
+        DueEntry(int day, String id, int row) {
+            this.day = day;
+            this.id = id;
+            this.row = row;
+        }
+    }
+
+    // Without the index, as getCompletedTasks(from, count): only the first from + count are kept while reading.
+    private List<Task> scanCompleted(int from, int count) {
+        List<Task> page = new ArrayList<>();
+        if (count <= 0) {
+            return page;
+        }
+        int keep = (int) Math.min(Integer.MAX_VALUE, (long) from + count);
+        // Latest first is the page order, so the head is the one to drop.
+        PriorityQueue<DueEntry> latest = new PriorityQueue<>(DueEntry.ORDER);
+        for (int i = 0; i < store.size(); i++) {
+            if (!isCompleted(store.statusAt(i))) {
                 continue;
             }
+            int day = store.dueDayAt(i);
+            if (latest.size() == keep && day < latest.peek().day) {
+                continue;
+            }
+            DueEntry entry = new DueEntry(day, store.idAt(i), i);
+            if (latest.size() < keep) {
+                latest.add(entry);
+            } else if (DueEntry.ORDER.compare(entry, latest.peek()) > 0) {
+                latest.poll();
+                latest.add(entry);
+            }
+        }
+        List<DueEntry> sorted = new ArrayList<>(latest);
+        sorted.sort(DueEntry.ORDER.reversed());
+        for (int i = from; i < sorted.size(); i++) {
+            page.add(store.get(sorted.get(i).row));
+        }
+        return page;
+    }
+
+    // Without the index: reads the due day and status of every task, and the ID of those that match.
+    private List<String> scanDue(int fromDay, int toDay) {
+        List<DueEntry> due = new ArrayList<>();
+        for (int i = 0; i < store.size(); i++) {
+            int day = store.dueDayAt(i);
+            if (day >= fromDay && day < toDay && !isCompleted(store.statusAt(i))) {
+                due.add(new DueEntry(day, store.idAt(i), i));
+            }
+        }
+        due.sort(DueEntry.ORDER);
+        List<String> ids = new ArrayList<>(due.size());
+        for (DueEntry entry : due) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
 
-            try {
-                int numericId = Integer.parseInt(existingId.trim());
-                if (numericId > maxId) {
-                    maxId = numericId;
+    // The histogram counts the same open tasks as the index, a month at a time.
+    private long sumDue(int fromDay, int toDay) {
+        long total = 0;
+        for (Map.Entry<Integer, int[]> month : dueHistogram.entrySet()) {
+            int key = month.getKey();
+            long first = LocalDate.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1, 1).toEpochDay();
+            int[] counts = month.getValue();
+            for (int d = 0; d < 31; d++) {
+                if (counts[d] != 0 && first + d >= fromDay && first + d < toDay) {
+                    total += counts[d];
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Number of open tasks due on each day of {@code month}, indexed by day
+     * of month minus one. Kept up to date as tasks change.
+     */
+    public int[] getDueCounts(YearMonth month) {
+        lock.lock();
+        try {
+            int[] counts = dueHistogram.get(monthKey(month.getYear(), month.getMonthValue()));
+            return counts == null ? new int[month.lengthOfMonth()] : Arrays.copyOf(counts, month.lengthOfMonth());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void countDue(LocalDate due, int delta) {
+        int key = monthKey(due.getYear(), due.getMonthValue());
+        int[] counts = dueHistogram.computeIfAbsent(key, k -> new int[32]);
+        counts[due.getDayOfMonth() - 1] += delta;
+        counts[31] += delta;
+        if (counts[31] == 0) {
+            dueHistogram.remove(key);
+        }
+    }
+
+    private static int monthKey(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    private static int fromDay(LocalDate from) {
+        return from == null ? DueDateIndex.NO_DATE + 1 : (int) from.toEpochDay();
+    }
+
+    private static int untilDay(LocalDate until) {
+        return until == null ? Integer.MAX_VALUE : (int) until.toEpochDay();
+    }
+
+    public Task getTaskAt(int index) {
+        lock.lock();
+        try {
+            return store.get(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getIdAt(int index) {
+        lock.lock();
+        try {
+            return store.idAt(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getStatusAt(int index) {
+        lock.lock();
+        try {
+            return store.statusAt(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Task findTask(String id) {
+        lock.lock();
+        try {
+            int pos = store.indexOf(id);
+            return pos < 0 ? null : store.get(pos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int indexOf(String id) {
+        lock.lock();
+        try {
+            return store.indexOf(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CompletableFuture<Void> addTask(Task task) {
+        checkLoaded();
+        lock.lock();
+        try {
+            applyUpsert(task);
+            TaskJournal.appendUpsert(task, pendingRecords);
+            trackShared(task.getId());
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CompletableFuture<Void> updateTask(String id, Task updatedTask) {
+        checkLoaded();
+        lock.lock();
+        try {
+            int pos = store.indexOf(id);
+            if (pos < 0) {
+                return finish();
+            }
+
+            replaceAt(pos, updatedTask);
+            TaskJournal.appendUpsert(updatedTask, pendingRecords);
+            trackShared(updatedTask.getId());
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CompletableFuture<Void> deleteTask(String id) {
+        checkLoaded();
+        lock.lock();
+        try {
+            if (applyDelete(id)) {
+                TaskJournal.appendDelete(id, pendingRecords);
+                trackShared(id);
+            }
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies {@code edit} to a copy of each listed task and stores the
+     * result, as one transaction: one journal commit and one published batch.
+     * Unknown IDs and edits that change nothing are skipped.
+     */
+    public CompletableFuture<Void> updateAll(Collection<String> ids, Consumer<Task> edit) {
+        BULK_SIZE.record(ids.size());
+        return batch(() -> {
+            for (String id : ids) {
+                Task current = findTask(id);
+                if (current == null) {
+                    continue;
+                }
+                Task changed = current.copy();
+                edit.accept(changed);
+                if (!changed.toCSV().equals(current.toCSV())) {
+                    updateTask(id, changed);
                 }
-            } catch (NumberFormatException ignored) {
-              
             }
+        });
+    }
+
+    public CompletableFuture<Void> completeAll(Collection<String> ids) {
+        return updateAll(ids, task -> task.setStatus("Completed"));
+    }
+
+    /** Deletes the listed tasks as one transaction; unknown IDs are skipped. */
+    public CompletableFuture<Void> deleteAll(Collection<String> ids) {
+        BULK_SIZE.record(ids.size());
+        return batch(() -> {
+            for (String id : ids) {
+                deleteTask(id);
+            }
+        });
+    }
+
+    // IDs and journal records are only safe once everything on disk has been applied.
+    private void checkLoaded() {
+        if (!loaded) {
+            throw new IllegalStateException("Tasks are still loading");
         }
-        return String.valueOf(maxId + 1);
     }
 
-    private void saveData() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_NAME))) {
-            for (Task task : tasks) {
-                writer.write(task.toCSV());
-                writer.newLine();
+    private void trackShared(String id) {
+        if (tailer != null) {
+            pendingIds.add(id);
+        }
+    }
+
+    public String generateUniqueId() {
+        return generateUniqueIds(1).get(0);
+    }
+
+    /** {@code count} new IDs at once; in shared mode they cost one trip to the sequence file. */
+    public List<String> generateUniqueIds(int count) {
+        checkLoaded();
+        lock.lock();
+        try {
+            long last = lastId + count;
+            if (journal.isShared()) {
+                try {
+                    last = journal.reserveIds(lastId, count);
+                } catch (IOException e) {
+                    persistenceErrorHandler.accept(e);
+                }
+            }
+            lastId = last;
+            List<String> ids = new ArrayList<>(count);
+            for (long id = last - count + 1; id <= last; id++) {
+                ids.add(String.valueOf(id));
+            }
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Tailer thread: hand over to the owning thread.
+    private void receiveRecords(List<String> records) {
+        sharedUpdates.execute(() -> batch(() -> {
+            for (String record : records) {
+                TaskJournal.applyRecord(record, this::applyRemoteUpsert, this::applyRemoteDelete);
+            }
+        }));
+    }
+
+    private void receiveResync(Map<String, Task> tasks) {
+        sharedUpdates.execute(() -> batch(() -> {
+            List<String> gone = new ArrayList<>();
+            for (int i = 0; i < store.size(); i++) {
+                String id = store.idAt(i);
+                if (!tasks.containsKey(id)) {
+                    gone.add(id);
+                }
+            }
+            for (String id : gone) {
+                applyRemoteDelete(id);
             }
+            for (Task task : tasks.values()) {
+                applyRemoteUpsert(task);
+            }
+        }));
+    }
+
+    // A local commit still on its way to the file comes after this record, so it wins.
+    private void applyRemoteUpsert(Task task) {
+        if (unwrittenIds.containsKey(task.getId())) {
+            return;
+        }
+        int pos = store.indexOf(task.getId());
+        if (pos >= 0 && store.get(pos).toCSV().equals(task.toCSV())) {
+            // Usually this instance's own record coming back.
+            return;
+        }
+        applyUpsert(task);
+    }
+
+    private void applyRemoteDelete(String id) {
+        if (!unwrittenIds.containsKey(id)) {
+            applyDelete(id);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (!journal.needsCompaction()) {
+            return;
+        }
+        compact(store.freeze());
+    }
+
+    // The frozen copy goes back to the store once the journal has written it.
+    private void compact(List<Task> frozen) {
+        journal.compact(frozen, lastId).thenRun(() -> release(frozen));
+    }
+
+    /** Writes the current tasks as CSV, the interchange format kept for import and export. */
+    public void exportCsv(File target) throws IOException {
+        TaskTransfer.exportTasks(this, target, TaskTransfer.Format.CSV, null);
+    }
+
+    /** Writes out everything still queued and stops the persistence thread. */
+    public void close() {
+        Metrics.removeGauge("data.tasks", taskCountGauge);
+        if (tailer != null) {
+            tailer.close();
+        }
+        try {
+            journal.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private void loadData() {
-        File file = new File(FILE_NAME);
-        if (!file.exists()) {
-            return;
+        // Other processes may not append or fold while the files are read.
+        boolean locked = false;
+        try {
+            journal.lock();
+            locked = true;
+        } catch (IOException e) {
+            persistenceErrorHandler.accept(e);
+        }
+        try {
+            loadFiles();
+            if (tailer != null) {
+                tailer.start();
+            }
+        } catch (IOException e) {
+            persistenceErrorHandler.accept(e);
+        } finally {
+            if (locked) {
+                try {
+                    journal.unlock();
+                } catch (IOException e) {
+                    persistenceErrorHandler.accept(e);
+                }
+            }
+        }
+    }
+
+    private void loadFiles() {
+        long start = System.nanoTime();
+        lastId = journal.readSequence();
+
+        boolean fromBinary = false;
+        File binary = journal.getBinaryFile();
+        if (binary.exists()) {
+            long phase = System.nanoTime();
+            try {
+                BinarySnapshot.Contents snapshot = BinarySnapshot.read(binary);
+                lastId = Math.max(lastId, snapshot.getLastId());
+                for (Task task : snapshot.getTasks()) {
+                    applyUpsert(task);
+                }
+                fromBinary = true;
+            } catch (IOException e) {
+                // Fall back to the CSV file below.
+                e.printStackTrace();
+            }
+            LOAD_SNAPSHOT_TIME.stop(phase);
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    tasks.add(Task.fromCSV(line));
+        if (!fromBinary && dataFile.exists()) {
+            long phase = System.nanoTime();
+            try {
+                List<String> rejected = new ArrayList<>();
+                for (Task task : TaskFileLoader.load(dataFile, rejected::add)) {
+                    applyUpsert(task);
                 }
+                keepRejectedRows(rejected);
+            } catch (IOException e) {
+                e.printStackTrace();
             }
+            LOAD_CSV_TIME.stop(phase);
+        }
+
+        long phase = System.nanoTime();
+        try {
+            journal.replay(this::applyUpsert, this::applyDelete);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        LOAD_REPLAY_TIME.stop(phase);
+        if (!fromBinary && store.size() > 0) {
+            // First start on a CSV-only data set: write the binary snapshot for the next cold start.
+            compact(store.freeze());
+        } else {
+            compactIfNeeded();
+        }
+        loaded = true;
+        LOAD_TIME.stop(start);
+    }
+
+    /**
+     * Rows of the CSV file that hold no task would be gone once the binary
+     * snapshot takes over from it, so they are appended to a file beside it
+     * and reported.
+     */
+    private void keepRejectedRows(List<String> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        File rejected = new File(dataFile.getPath() + ".rejected");
+        StringBuilder text = new StringBuilder();
+        for (String row : rows) {
+            text.append(row).append('\n');
+        }
+        try {
+            Files.write(rejected.toPath(), text.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            persistenceErrorHandler.accept(new IOException(rows.size() + " rows of " + dataFile.getName()
+                    + " could not be read; they were copied to " + rejected.getName()));
+        } catch (IOException e) {
+            persistenceErrorHandler.accept(e);
+        }
+    }
+
+    // Loader thread. Reads the same files as loadFiles, under the journal lock as in loadData.
+    private void loadInBackground(Executor updates) {
+        long start = System.nanoTime();
+        LoadFeed feed = new LoadFeed(updates, start);
+        long fileLastId = 0;
+        boolean locked = false;
+        try {
+            journal.lock();
+            locked = true;
+        } catch (IOException e) {
+            persistenceErrorHandler.accept(e);
+        }
+        try {
+            fileLastId = journal.readSequence();
+            boolean fromBinary = false;
+            File binary = journal.getBinaryFile();
+            if (binary.exists()) {
+                try {
+                    fileLastId = Math.max(fileLastId, BinarySnapshot.read(binary, feed::add));
+                    fromBinary = true;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (!fromBinary && dataFile.exists()) {
+                try {
+                    List<String> rejected = new ArrayList<>();
+                    for (Task task : TaskFileLoader.load(dataFile, rejected::add)) {
+                        feed.add(task);
+                    }
+                    keepRejectedRows(rejected);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            // Updates and deletes move tasks around, so the journal is applied and announced in one go.
+            List<Runnable> replay = new ArrayList<>();
+            try {
+                journal.replay(task -> replay.add(() -> applyUpsert(task)), id -> replay.add(() -> applyDelete(id)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            long lastIdOnDisk = fileLastId;
+            boolean migrate = !fromBinary;
+            feed.finish(() -> {
+                for (Runnable change : replay) {
+                    change.run();
+                }
+                lastId = Math.max(lastId, lastIdOnDisk);
+                if (migrate && store.size() > 0) {
+                    compact(store.freeze());
+                } else {
+                    compactIfNeeded();
+                }
+                loaded = true;
+                LOAD_TIME.stop(start);
+            });
+            if (tailer != null) {
+                // Under the same lock as the reads, so the tailer starts where they stopped.
+                tailer.start();
+            }
+        } catch (IOException e) {
+            persistenceErrorHandler.accept(e);
+        } finally {
+            if (locked) {
+                try {
+                    journal.unlock();
+                } catch (IOException e) {
+                    persistenceErrorHandler.accept(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Carries tasks from the loader thread to the owning thread. At most two
+     * slices are queued at a time, so reading never runs far ahead of
+     * applying and the owning thread's own events are not held up.
+     */
+    private final class LoadFeed {
+        private final Executor updates;
+        private final long start;
+        private final Semaphore queued = new Semaphore(2);
+        private List<Task> slice = new ArrayList<>();
+        private long count;
+        private long announceAt = FIRST_LOAD_CHUNK;
+
+        LoadFeed(Executor updates, long start) {
+            this.updates = updates;
+            this.start = start;
+        }
+
+        void add(Task task) {
+            slice.add(task);
+            count++;
+            if (count == announceAt) {
+                announceAt *= 2;
+                send(true, null);
+            } else if (slice.size() == MAX_LOAD_SLICE) {
+                send(false, null);
+            }
+        }
+
+        void finish(Runnable last) {
+            send(true, last);
+        }
+
+        private void send(boolean announce, Runnable last) {
+            List<Task> tasks = slice;
+            slice = new ArrayList<>();
+            queued.acquireUninterruptibly();
+            updates.execute(() -> {
+                lock.lock();
+                try {
+                    boolean first = version == 0;
+                    for (Task task : tasks) {
+                        applyUpsert(task);
+                    }
+                    if (last != null) {
+                        last.run();
+                    }
+                    if (announce) {
+                        publish();
+                        if (first) {
+                            FIRST_CHUNK_TIME.stop(start);
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                    queued.release();
+                }
+                if (last != null) {
+                    whenLoaded.complete(null);
+                }
+            });
+        }
+    }
+
+    private void applyUpsert(Task task) {
+        String id = task.getId();
+        int pos = store.indexOf(id);
+        if (pos >= 0) {
+            replaceAt(pos, task);
+            return;
+        }
+
+        dropSnapshot();
+        store.add(task);
+        count(task, 1);
+        observeId(id);
+        record(TaskChangeEvent.Type.ADDED, task, null, store.size() - 1);
+    }
+
+    private void replaceAt(int pos, Task task) {
+        // Dropped first, so the store can reuse the replaced record at once.
+        dropSnapshot();
+        Task previous = store.set(pos, task);
+        count(previous, -1);
+        count(task, 1);
+        record(TaskChangeEvent.Type.UPDATED, task, previous, pos);
+    }
+
+    // Swap-remove keeps deletes O(1); the last task takes over the freed slot.
+    private boolean applyDelete(String id) {
+        int pos = store.indexOf(id);
+        observeId(id);
+        if (pos < 0) {
+            return false;
+        }
+
+        dropSnapshot();
+        Task removed = store.removeSwap(pos);
+        count(removed, -1);
+        record(TaskChangeEvent.Type.REMOVED, removed, null, pos);
+        return true;
+    }
+
+    private void observeId(String id) {
+        if (id == null) {
+            return;
+        }
+
+        try {
+            long numericId = Long.parseLong(id.trim());
+            if (numericId > lastId) {
+                lastId = numericId;
+            }
+        } catch (NumberFormatException ignored) {
+
+        }
+    }
+
+    /**
+     * IDs of tasks whose title or description has a token starting with every
+     * query term. Without a search index every task of a snapshot is read.
+     */
+    public Set<String> search(String query) {
+        long start = System.nanoTime();
+        Set<String> result;
+        if (searchIndex != null) {
+            result = searchIndex.search(query);
+        } else {
+            try (TaskSnapshot tasks = snapshot()) {
+                result = TaskSearchIndex.scan(tasks, query);
+            }
+        }
+        SEARCH_TIME.stop(start);
+        return result;
     }
 
     public long countTasks() {
-        return tasks.size();
+        lock.lock();
+        try {
+            return store.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public long countCompleted() {
-        return tasks.stream().filter(t -> t.getStatus().equals("Completed")).count();
+        return countByStatus("Completed");
     }
 
     public long countPending() {
-        return tasks.stream().filter(t -> t.getStatus().equals("Pending")).count();
+        return countByStatus("Pending");
+    }
+
+    private static boolean isCompleted(Task task) {
+        return isCompleted(task.getStatus());
+    }
+
+    private static boolean isCompleted(String status) {
+        return "Completed".equals(status);
+    }
+
+    public long countByStatus(String status) {
+        lock.lock();
+        try {
+            return statusCounts.getOrDefault(status, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long countByPriority(String priority) {
+        lock.lock();
+        try {
+            return priorityCounts.getOrDefault(priority, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void count(Task task, long delta) {
+        if (searchIndex != null) {
+            DueDateIndex dateIndex = isCompleted(task) ? completedIndex : openIndex;
+            if (delta > 0) {
+                dateIndex.add(task);
+                searchIndex.add(task);
+            } else {
+                dateIndex.remove(task);
+                searchIndex.remove(task);
+            }
+        }
+        if (!isCompleted(task) && task.getDueDate() != null) {
+            countDue(task.getDueDate(), (int) delta);
+        }
+        statusCounts.merge(String.valueOf(task.getStatus()), delta, Long::sum);
+        priorityCounts.merge(String.valueOf(task.getPriority()), delta, Long::sum);
     }
 }
@@ -0,0 +1,234 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Task ids sorted by due date, then id, with access by rank. Tasks without a
+ * due date sort first. Numeric ids come before the others, in numeric order;
+ * the rest sort as text.
+ *
+ * <p>
+ * Entries live in sorted chunks of at most {@link #MAX_CHUNK}, so an insert
+ * or delete moves a few hundred entries instead of shifting the whole index.
+ */
+final class DueDateIndex {
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int MAX_CHUNK = 1024;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    void add(Task task) {
+        int day = dayOf(task);
+        String id = task.getId();
+        if (chunks.isEmpty()) {
+            chunks.add(new Chunk());
+        }
+
+        int c = chunkFor(day, id);
+        Chunk chunk = chunks.get(c);
+        chunk.insert(chunk.search(day, id), day, id);
+        size++;
+        if (chunk.count == MAX_CHUNK) {
+            chunks.add(c + 1, chunk.splitUpperHalf());
+        }
+    }
+
+    boolean remove(Task task) {
+        if (chunks.isEmpty()) {
+            return false;
+        }
+
+        int day = dayOf(task);
+        String id = task.getId();
+        int c = chunkFor(day, id);
+        Chunk chunk = chunks.get(c);
+        int pos = chunk.search(day, id);
+        if (pos >= chunk.count || chunk.days[pos] != day || !chunk.ids[pos].equals(id)) {
+            return false;
+        }
+
+        chunk.delete(pos);
+        size--;
+        if (chunk.count == 0 && chunks.size() > 1) {
+            chunks.remove(c);
+        }
+        return true;
+    }
+
+    String idAt(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", size: " + size);
+        }
+        for (Chunk chunk : chunks) {
+            if (rank < chunk.count) {
+                return chunk.ids[rank];
+            }
+            rank -= chunk.count;
+        }
+        throw new IllegalStateException();
+    }
+
+    /** Ids with ranks {@code from} (inclusive) to {@code to} (exclusive), in index order. */
+    List<String> ids(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Ranks: " + from + ".." + to + ", size: " + size);
+        }
+        List<String> result = new ArrayList<>(to - from);
+        int rank = 0;
+        for (Chunk chunk : chunks) {
+            if (rank >= to) {
+                break;
+            }
+            int end = rank + chunk.count;
+            for (int i = Math.max(from, rank); i < Math.min(to, end); i++) {
+                result.add(chunk.ids[i - rank]);
+            }
+            rank = end;
+        }
+        return result;
+    }
+
+    /** Ids due on or after {@code fromDay} and before {@code toDay}, in index order. */
+    List<String> idsBetween(int fromDay, int toDay) {
+        List<String> result = new ArrayList<>();
+        if (chunks.isEmpty()) {
+            return result;
+        }
+        for (int c = chunkFor(fromDay, null); c < chunks.size(); c++) {
+            Chunk chunk = chunks.get(c);
+            for (int i = chunk.search(fromDay, null); i < chunk.count; i++) {
+                if (chunk.days[i] >= toDay) {
+                    return result;
+                }
+                result.add(chunk.ids[i]);
+            }
+        }
+        return result;
+    }
+
+    /** Number of entries due strictly before {@code epochDay}; dateless ones included. */
+    int rankOf(int epochDay) {
+        int rank = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.count > 0 && chunk.days[chunk.count - 1] >= epochDay) {
+                return rank + chunk.search(epochDay, null);
+            }
+            rank += chunk.count;
+        }
+        return rank;
+    }
+
+    static int dayOf(Task task) {
+        return task.getDueDate() == null ? NO_DATE : (int) task.getDueDate().toEpochDay();
+    }
+
+    // The chunk whose range holds the key: the first one whose last entry is not below it.
+    private int chunkFor(int day, String id) {
+        int lo = 0;
+        int hi = chunks.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Chunk chunk = chunks.get(mid);
+            if (compare(chunk.days[chunk.count - 1], chunk.ids[chunk.count - 1], day, id) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // A null id sorts before every id of the same day.
+    static int compare(int leftDay, String leftId, int rightDay, String rightId) {
+        if (leftDay != rightDay) {
+            return Integer.compare(leftDay, rightDay);
+        }
+        if (leftId == null || rightId == null) {
+            return leftId == null ? (rightId == null ? 0 : -1) : 1;
+        }
+        // Numeric ids compare by value so "10" follows "9". Mixing in text order
+        // for other ids would not be transitive: "9" < "10" < "1a" < "9".
+        boolean leftDigits = isDigits(leftId);
+        if (leftDigits != isDigits(rightId)) {
+            return leftDigits ? -1 : 1;
+        }
+        if (leftDigits && leftId.length() != rightId.length()) {
+            return Integer.compare(leftId.length(), rightId.length());
+        }
+        return leftId.compareTo(rightId);
+    }
+
+    private static boolean isDigits(String s) {
+        if (s.isEmpty() || s.charAt(0) == '0') {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Chunk {
+        int[] days = new int[MAX_CHUNK];
+        String[] ids = new String[MAX_CHUNK];
+        int count;
+
+        // First position whose entry is not below the key.
+        int search(int day, String id) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(days[mid], ids[mid], day, id) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        void insert(int pos, int day, String id) {
+            System.arraycopy(days, pos, days, pos + 1, count - pos);
+            System.arraycopy(ids, pos, ids, pos + 1, count - pos);
+            days[pos] = day;
+            ids[pos] = id;
+            count++;
+        }
+
+        void delete(int pos) {
+            System.arraycopy(days, pos + 1, days, pos, count - pos - 1);
+            System.arraycopy(ids, pos + 1, ids, pos, count - pos - 1);
+            ids[--count] = null;
+        }
+
+        Chunk splitUpperHalf() {
+            Chunk upper = new Chunk();
+            int keep = count / 2;
+            upper.count = count - keep;
+            System.arraycopy(days, keep, upper.days, 0, upper.count);
+            System.arraycopy(ids, keep, upper.ids, 0, upper.count);
+            Arrays.fill(ids, keep, count, null);
+            count = keep;
+            return upper;
+        }
+    }
+}
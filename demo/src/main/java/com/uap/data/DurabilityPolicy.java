@@ -0,0 +1,50 @@
+package com.uap.data;
+
+/**
+ * When journal writes are forced to disk, and therefore when the futures
+ * returned by DataManager's mutations complete.
+ */
+public final class DurabilityPolicy {
+    public enum Mode {
+        EVERY_COMMIT, INTERVAL, IDLE
+    }
+
+    private final Mode mode;
+    private final long intervalMillis;
+
+    private DurabilityPolicy(Mode mode, long intervalMillis) {
+        this.mode = mode;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /** Sync after every batch the writer thread picks up. */
+    public static DurabilityPolicy everyCommit() {
+        return new DurabilityPolicy(Mode.EVERY_COMMIT, 0);
+    }
+
+    /** Sync at most once per {@code millis}; commits in between share the sync. */
+    public static DurabilityPolicy interval(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + millis);
+        }
+        return new DurabilityPolicy(Mode.INTERVAL, millis);
+    }
+
+    /** Sync only once the queue has drained. */
+    public static DurabilityPolicy onIdle() {
+        return new DurabilityPolicy(Mode.IDLE, 0);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.INTERVAL ? mode + "(" + intervalMillis + "ms)" : mode.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package com.uap.data;
+
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Dedicated persistence thread behind a bounded queue. Everything queued
+ * while the previous batch was being written goes out in a single write, and
+ * the commit futures complete once the {@link DurabilityPolicy} has synced
+ * them to disk.
+ */
+class GroupCommitWriter {
+    interface Sink {
+        void write(byte[] batch) throws IOException;
+
+        void sync() throws IOException;
+    }
+
+    interface Action {
+        void run() throws IOException;
+    }
+
+    private static final int CAPACITY = 4096;
+
+    private static final LatencyHistogram WRITE_TIME = Metrics.timer("journal.write");
+    private static final LatencyHistogram SYNC_TIME = Metrics.timer("journal.sync");
+    private static final LatencyHistogram WRITE_BYTES = Metrics.size("journal.write.bytes");
+    private static final LongAdder BYTES = Metrics.counter("journal.bytes");
+    private static final LongAdder WRITES = Metrics.counter("journal.writes");
+
+    private static final class Entry {
+        final String records;
+        final Action action;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Entry(String records, Action action) {
+            this.records = records;
+            this.action = action;
+        }
+    }
+
+    private static final Entry SHUTDOWN = new Entry(null, null);
+
+    private final Sink sink;
+    private final DurabilityPolicy policy;
+    private final Consumer<IOException> errorHandler;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Thread thread;
+
+    private final List<CompletableFuture<Void>> unsynced = new ArrayList<>();
+    private long lastSync = System.currentTimeMillis();
+    private volatile long batches;
+
+    GroupCommitWriter(String name, Sink sink, DurabilityPolicy policy, Consumer<IOException> errorHandler) {
+        this.sink = sink;
+        this.policy = policy;
+        this.errorHandler = errorHandler;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Queues newline-terminated records; blocks while the queue is full. */
+    CompletableFuture<Void> submit(String records) {
+        return enqueue(new Entry(records, null));
+    }
+
+    /** Runs {@code action} on the writer thread after everything queued before it is synced. */
+    CompletableFuture<Void> submit(Action action) {
+        return enqueue(new Entry(null, action));
+    }
+
+    long getBatchCount() {
+        return batches;
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        if (!thread.isAlive()) {
+            entry.done.completeExceptionally(new IllegalStateException("Writer is closed"));
+            return entry.done;
+        }
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entry.done.completeExceptionally(e);
+        }
+        return entry.done;
+    }
+
+    /** Writes and syncs everything already queued, then stops the thread. */
+    void close() {
+        if (!thread.isAlive()) {
+            return;
+        }
+        try {
+            queue.put(SHUTDOWN);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                Entry first = policy.getMode() == DurabilityPolicy.Mode.INTERVAL && !unsynced.isEmpty()
+                        ? queue.poll(Math.max(1, lastSync + policy.getIntervalMillis() - System.currentTimeMillis()),
+                                TimeUnit.MILLISECONDS)
+                        : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            for (Entry entry : batch) {
+                if (entry == SHUTDOWN) {
+                    running = false;
+                }
+            }
+            batch.remove(SHUTDOWN);
+
+            try {
+                process(batch);
+                if (!running || shouldSync()) {
+                    sync();
+                }
+            } catch (IOException e) {
+                fail(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void process(List<Entry> batch) throws IOException {
+        StringBuilder pending = new StringBuilder();
+        for (Entry entry : batch) {
+            if (entry.action == null) {
+                pending.append(entry.records);
+                unsynced.add(entry.done);
+                continue;
+            }
+
+            flush(pending);
+            sync();
+            try {
+                entry.action.run();
+                entry.done.complete(null);
+            } catch (IOException e) {
+                entry.done.completeExceptionally(e);
+                errorHandler.accept(e);
+            }
+        }
+        flush(pending);
+    }
+
+    private void flush(StringBuilder pending) throws IOException {
+        if (pending.length() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        byte[] bytes = pending.toString().getBytes(StandardCharsets.UTF_8);
+        sink.write(bytes);
+        pending.setLength(0);
+        batches++;
+        WRITE_TIME.stop(start);
+        WRITE_BYTES.record(bytes.length);
+        BYTES.add(bytes.length);
+        WRITES.increment();
+    }
+
+    private boolean shouldSync() {
+        switch (policy.getMode()) {
+            case EVERY_COMMIT:
+                return true;
+            case INTERVAL:
+                return System.currentTimeMillis() - lastSync >= policy.getIntervalMillis();
+            default:
+                return queue.isEmpty();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (unsynced.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        sink.sync();
+        SYNC_TIME.stop(start);
+        lastSync = System.currentTimeMillis();
+        for (CompletableFuture<Void> done : unsynced) {
+            done.complete(null);
+        }
+        unsynced.clear();
+    }
+
+    private void fail(List<Entry> batch, IOException e) {
+        for (CompletableFuture<Void> done : unsynced) {
+            done.completeExceptionally(e);
+        }
+        unsynced.clear();
+        for (Entry entry : batch) {
+            entry.done.completeExceptionally(e);
+        }
+        errorHandler.accept(e);
+    }
+}
@@ -0,0 +1,103 @@
+package com.uap.data;
+
+import java.util.Arrays;
+
+/** Open-addressing int -> int map for non-negative keys, without boxing. */
+final class IntIntHashMap {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int key, int missing) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask;; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE) {
+                return missing;
+            }
+        }
+    }
+
+    void put(int key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask;; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == FREE) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    void remove(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        size--;
+    }
+
+    long footprintBytes() {
+        return 8L * keys.length;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
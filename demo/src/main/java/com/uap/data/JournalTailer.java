@@ -0,0 +1,250 @@
+package com.uap.data;
+
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Follows a shared journal and hands over the records other processes
+ * append. A {@link WatchService} wakes it on changes; it also polls, because
+ * network drives often deliver no events.
+ *
+ * <p>
+ * When another process rotates the log, the rest of the old file is read
+ * from its new name. If that file is already folded away, the whole data set
+ * is read back from disk instead. The same happens when a new log was
+ * created under a later fold than expected: a log this tailer never saw has
+ * been folded in between.
+ */
+final class JournalTailer {
+    static final long POLL_MILLIS = 500;
+
+    private static final LatencyHistogram TAIL_TIME = Metrics.timer("journal.tail");
+    private static final LongAdder TAILED_RECORDS = Metrics.counter("journal.tail.records");
+    private static final LongAdder RESYNCS = Metrics.counter("journal.tail.resyncs");
+
+    private final TaskJournal journal;
+    private final Consumer<List<String>> onRecords;
+    private final Consumer<Map<String, Task>> onResync;
+    private final Consumer<IOException> errorHandler;
+    private final Thread thread;
+
+    // Tailer thread only, apart from start().
+    private String fileId;
+    private long offset;
+    // The fold count the next log will be created under.
+    private long nextFolds;
+
+    private volatile boolean running = true;
+    private WatchService watcher;
+
+    JournalTailer(TaskJournal journal, Consumer<List<String>> onRecords, Consumer<Map<String, Task>> onResync,
+            Consumer<IOException> errorHandler) {
+        this.journal = journal;
+        this.onRecords = onRecords;
+        this.onResync = onResync;
+        this.errorHandler = errorHandler;
+        this.thread = new Thread(this::run, "task-journal-tail");
+        this.thread.setDaemon(true);
+    }
+
+    /** Starts after the records already in the log; call with the journal locked, right after loading. */
+    void start() throws IOException {
+        moveToEnd();
+        thread.start();
+    }
+
+    void close() {
+        running = false;
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException ignored) {
+            }
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        Path dir = journal.getJournalFile().getAbsoluteFile().getParentFile().toPath();
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            // Polling alone still works.
+            watcher = null;
+        }
+
+        while (running) {
+            try {
+                if (watcher != null) {
+                    WatchKey key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(POLL_MILLIS);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+
+            try {
+                poll();
+            } catch (IOException e) {
+                if (running) {
+                    errorHandler.accept(e);
+                }
+            }
+        }
+    }
+
+    // Package-private so tests can step the tailer without its thread.
+    void poll() throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = open(journal.getJournalFile())) {
+            String id = fileId(channel);
+            long size = id == null ? 0 : channel.size();
+
+            if (fileId != null && (!fileId.equals(id) || size < offset)) {
+                List<String> rest = null;
+                try (FileChannel old = open(journal.getCompactingFile())) {
+                    if (fileId.equals(fileId(old))) {
+                        rest = read(old, offset, old.size());
+                    }
+                }
+                if (rest == null) {
+                    resync();
+                    return;
+                }
+                publish(rest);
+                fileId = null;
+                offset = 0;
+            }
+
+            if (id != null) {
+                if (fileId == null) {
+                    if (TaskJournal.foldsBefore(id) != nextFolds) {
+                        resync();
+                        return;
+                    }
+                    fileId = id;
+                    nextFolds++;
+                }
+                publish(read(channel, offset, size));
+            }
+        } finally {
+            TAIL_TIME.stop(start);
+        }
+    }
+
+    private void resync() throws IOException {
+        RESYNCS.increment();
+        Map<String, Task> tasks;
+        journal.lock();
+        try {
+            tasks = journal.readAll();
+            moveToEnd();
+        } finally {
+            journal.unlock();
+        }
+        onResync.accept(tasks);
+    }
+
+    // Only with the journal locked, so the log and the fold count belong together.
+    void moveToEnd() throws IOException {
+        try (FileChannel channel = open(journal.getJournalFile())) {
+            fileId = fileId(channel);
+            offset = fileId == null ? 0 : channel.size();
+            // The current log is not folded yet, so the next one comes after its fold.
+            nextFolds = journal.readFolds() + (fileId == null ? 0 : 1);
+        }
+    }
+
+    private void publish(List<String> records) {
+        if (!records.isEmpty()) {
+            TAILED_RECORDS.add(records.size());
+            onRecords.accept(records);
+        }
+    }
+
+    /**
+     * Complete records between {@code from} and {@code to}; the offset moves
+     * past the last one only. A line break inside a quoted field does not end
+     * a record.
+     */
+    private List<String> read(FileChannel channel, long from, long to) throws IOException {
+        List<String> records = new ArrayList<>();
+        if (to <= from) {
+            return records;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer, from + buffer.position());
+        }
+
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+        int lineStart = 0;
+        boolean quoted = false;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '"') {
+                quoted = !quoted;
+            } else if (bytes[i] == '\n' && !quoted) {
+                records.add(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                lineStart = i + 1;
+            }
+        }
+        offset = from + lineStart;
+        return records;
+    }
+
+    // Null if the file does not exist.
+    private static FileChannel open(File file) throws IOException {
+        try {
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Which log the channel is reading: the ID line written when the file was
+     * created, since a recreated file can get the inode of one just deleted.
+     * Null for a missing or still empty file.
+     */
+    private static String fileId(FileChannel channel) throws IOException {
+        if (channel == null || channel.size() == 0) {
+            return null;
+        }
+        return TaskJournal.readFileId(channel);
+    }
+}
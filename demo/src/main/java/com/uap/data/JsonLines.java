@@ -0,0 +1,226 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One task per line as a flat JSON object:
+ *
+ * <pre>
+ * {"id":"1","title":"...","description":"...","priority":"High","status":"Pending","createdDate":"2025-01-01","dueDate":null}
+ * </pre>
+ *
+ * Only what such objects need is read: string, number, boolean and null
+ * values. Nested objects and arrays are rejected.
+ */
+final class JsonLines {
+    static final String[] FIELDS = { "id", "title", "description", "priority", "status", "createdDate", "dueDate" };
+
+    private JsonLines() {
+    }
+
+    static void write(Task task, StringBuilder out) {
+        out.append('{');
+        Object[] values = { task.getId(), task.getTitle(), task.getDescription(), task.getPriority(),
+                task.getStatus(), task.getCreatedDate(), task.getDueDate() };
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('"').append(FIELDS[i]).append("\":");
+            if (values[i] == null) {
+                out.append("null");
+            } else {
+                writeString(String.valueOf(values[i]), out);
+            }
+        }
+        out.append('}');
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        out.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        out.append(ch);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /** The object's values as text, {@code null} for JSON null; malformed input is an IllegalArgumentException. */
+    static Map<String, String> read(String line) {
+        Parser parser = new Parser(line);
+        Map<String, String> values = parser.object();
+        parser.skipSpace();
+        if (parser.pos < line.length()) {
+            throw parser.error("text after the object");
+        }
+        return values;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> values = new HashMap<>();
+            expect('{');
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            while (true) {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                skipSpace();
+                values.put(key, value());
+                skipSpace();
+                char next = next();
+                if (next == '}') {
+                    return values;
+                }
+                if (next != ',') {
+                    pos--;
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+
+        private String value() {
+            char ch = peek();
+            if (ch == '"') {
+                return string();
+            }
+            if (ch == '{' || ch == '[') {
+                throw error("nested values are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && "-+.0123456789eEtrufalsn".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty()) {
+                throw error("expected a value");
+            }
+            return literal;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = null;
+            int start = pos;
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("unterminated string");
+                }
+                char ch = text.charAt(pos++);
+                if (ch == '"') {
+                    return out == null ? text.substring(start, pos - 1) : out.toString();
+                }
+                if (ch != '\\') {
+                    if (out != null) {
+                        out.append(ch);
+                    }
+                    continue;
+                }
+                if (out == null) {
+                    out = new StringBuilder(text.substring(start, pos - 1));
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("short \\u escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        out.append(escaped);
+                }
+            }
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("unexpected end of line");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char ch = peek();
+            pos++;
+            return ch;
+        }
+
+        private void expect(char ch) {
+            if (peek() != ch) {
+                throw error("expected '" + ch + "'");
+            }
+            pos++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at column " + (pos + 1) + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link Task} object per row plus an id -> index hash map. Tasks are
+ * copied on the way in and out, so no caller ever holds an object the store
+ * keeps; a frozen list can then share the stored objects themselves.
+ */
+public class ListTaskStore implements TaskStore {
+    private final List<Task> tasks = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        return tasks.get(index).copy();
+    }
+
+    @Override
+    public String idAt(int index) {
+        return tasks.get(index).getId();
+    }
+
+    @Override
+    public String statusAt(int index) {
+        return tasks.get(index).getStatus();
+    }
+
+    @Override
+    public int indexOf(String id) {
+        Integer pos = positions.get(id);
+        return pos == null ? -1 : pos;
+    }
+
+    @Override
+    public void add(Task task) {
+        positions.put(task.getId(), tasks.size());
+        tasks.add(task.copy());
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = tasks.set(index, task.copy());
+        if (!previous.getId().equals(task.getId())) {
+            positions.remove(previous.getId());
+            positions.put(task.getId(), index);
+        }
+        return previous;
+    }
+
+    @Override
+    public Task removeSwap(int index) {
+        Task removed = tasks.get(index);
+        positions.remove(removed.getId());
+
+        int last = tasks.size() - 1;
+        Task moved = tasks.remove(last);
+        if (index != last) {
+            tasks.set(index, moved);
+            positions.put(moved.getId(), index);
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Task> freeze() {
+        Task[] frozen = tasks.toArray(new Task[0]);
+        return new AbstractList<Task>() {
+            @Override
+            public Task get(int index) {
+                return frozen[index].copy();
+            }
+
+            @Override
+            public int size() {
+                return frozen.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,526 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Task storage outside the Java heap. Records live in direct
+ * {@link ByteBuffer} segments, and the row table and the ID hash are direct
+ * buffers too. The heap holds only the priority/status dictionary, so its size
+ * does not depend on the number of tasks.
+ *
+ * <pre>
+ * slot    u8 size class | u8 priority | u8 status | u8 unused | i32 created
+ *         | i32 due | i32 id hash | str id | str title | str description
+ * str     i32 byte length (-1 for null), UTF-8 bytes
+ * </pre>
+ *
+ * Slots come in power-of-two size classes from 32 bytes to a whole segment.
+ * Each class has its own free list, linked through the freed slots. While a
+ * {@link #freeze() frozen view} is in use, freed slots are held back on a
+ * heap-side stack, untouched, so that the view keeps reading valid records.
+ * A view is in use until it is {@link #release released}, or garbage
+ * collected if it never is; its row table is then kept for the next view.
+ *
+ * <p>
+ * DataManager keeps no search or due-date index beside this store, so the
+ * heap does not grow with the tasks in it either.
+ */
+public class OffHeapTaskStore implements TaskStore {
+    public static final int SEGMENT_SIZE = 4 << 20;
+
+    private static final int MIN_SLOT_SHIFT = 5;
+    private static final int CLASSES = Integer.numberOfTrailingZeros(SEGMENT_SIZE) - MIN_SLOT_SHIFT + 1;
+    private static final int HEADER = 16;
+    private static final int NEXT_FREE = 8;
+    private static final long NIL = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NULL_CODE = 0xFF;
+
+    private ByteBuffer[] segments = new ByteBuffer[4];
+    private int segmentCount;
+    private int bump = SEGMENT_SIZE;
+    private final long[] freeHeads = new long[CLASSES];
+    private long[] deferred = new long[16];
+    private int deferredCount;
+
+    private ByteBuffer rows;
+    private int size;
+    // The row table of the last released view, for the next one.
+    private ByteBuffer spareRows;
+
+    private ByteBuffer table;
+    private int tableMask;
+    private int tableSize;
+
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final Set<Reference<?>> snapshots = new HashSet<>();
+
+    public OffHeapTaskStore() {
+        Arrays.fill(freeHeads, NIL);
+        rows = ByteBuffer.allocateDirect(8 * 1024);
+        table = ByteBuffer.allocateDirect(8 * 2048);
+        tableMask = 2047;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        return read(segments, address(index), dictionary);
+    }
+
+    @Override
+    public String idAt(int index) {
+        long address = address(index);
+        ByteBuffer segment = segments[segmentOf(address)];
+        return readString(segment, offsetOf(address) + HEADER);
+    }
+
+    @Override
+    public String statusAt(int index) {
+        long address = address(index);
+        return decode(segments[segmentOf(address)].get(offsetOf(address) + 2), dictionary);
+    }
+
+    @Override
+    public int dueDayAt(int index) {
+        long address = address(index);
+        return segments[segmentOf(address)].getInt(offsetOf(address) + 8);
+    }
+
+    @Override
+    public int indexOf(String id) {
+        int entry = findEntry(id);
+        return entry < 0 ? -1 : table.getInt(entry * 8 + 4) - 1;
+    }
+
+    @Override
+    public void add(Task task) {
+        if ((size + 1) * 8 > rows.capacity()) {
+            rows = grow(rows, rows.capacity() * 2);
+        }
+        rows.putLong(size * 8, write(task));
+        insertEntry(hash(task.getId()), size);
+        size++;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        long old = address(index);
+        Task previous = read(segments, old, dictionary);
+        long address = write(task);
+        if (!previous.getId().equals(task.getId())) {
+            removeEntry(findEntry(previous.getId()));
+            insertEntry(hash(task.getId()), index);
+        }
+        rows.putLong(index * 8, address);
+        free(old);
+        return previous;
+    }
+
+    @Override
+    public Task removeSwap(int index) {
+        long address = address(index);
+        Task removed = read(segments, address, dictionary);
+        removeEntry(findEntry(removed.getId()));
+
+        int last = --size;
+        if (index != last) {
+            long moved = rows.getLong(last * 8);
+            rows.putLong(index * 8, moved);
+            int entry = entryForRow(segments[segmentOf(moved)].getInt(offsetOf(moved) + 12), last);
+            table.putInt(entry * 8 + 4, index + 1);
+        }
+        free(address);
+        return removed;
+    }
+
+    /** Copies only the row table; records are shared until the view is released. */
+    @Override
+    public List<Task> freeze() {
+        ByteBuffer rowCopy = spareRows;
+        spareRows = null;
+        if (rowCopy == null || rowCopy.capacity() < size * 8) {
+            rowCopy = ByteBuffer.allocateDirect(rows.capacity());
+        }
+        ByteBuffer source = rows.duplicate();
+        ((Buffer) source).limit(size * 8);
+        ((Buffer) rowCopy).clear();
+        rowCopy.put(source);
+
+        Frozen view = new Frozen(rowCopy, Arrays.copyOf(segments, segmentCount), new ArrayList<>(dictionary), size);
+        view.ref = new WeakReference<Object>(view, collected);
+        snapshots.add(view.ref);
+        return view;
+    }
+
+    @Override
+    public void release(List<Task> frozen) {
+        Frozen view = (Frozen) frozen;
+        if (!snapshots.remove(view.ref)) {
+            return;
+        }
+        // Cleared, it is not queued when the view is collected.
+        view.ref.clear();
+        view.released = true;
+        if (spareRows == null || view.rows.capacity() > spareRows.capacity()) {
+            spareRows = view.rows;
+        }
+        releaseDeferred();
+    }
+
+    @Override
+    public boolean allowsHeapIndexes() {
+        return false;
+    }
+
+    private static final class Frozen extends AbstractList<Task> {
+        final ByteBuffer rows;
+        final ByteBuffer[] segments;
+        final List<String> dictionary;
+        final int size;
+        Reference<?> ref;
+        boolean released;
+
+        Frozen(ByteBuffer rows, ByteBuffer[] segments, List<String> dictionary, int size) {
+            this.rows = rows;
+            this.segments = segments;
+            this.dictionary = dictionary;
+            this.size = size;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (released) {
+                throw new IllegalStateException("Frozen view was released");
+            }
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return read(segments, rows.getLong(index * 8), dictionary);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Direct memory reserved for segments, the row table and the ID hash. */
+    public long footprintBytes() {
+        return (long) segmentCount * SEGMENT_SIZE + rows.capacity() + table.capacity();
+    }
+
+    private long address(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return rows.getLong(index * 8);
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private long write(Task task) {
+        if (task.getId() == null) {
+            throw new IllegalArgumentException("Task ID is required");
+        }
+        byte[] id = task.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] title = utf8(task.getTitle());
+        byte[] description = utf8(task.getDescription());
+        int length = HEADER + 12 + id.length + (title == null ? 0 : title.length)
+                + (description == null ? 0 : description.length);
+        if (length > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Task " + task.getId() + " does not fit in a storage segment");
+        }
+
+        // Codes first: running out of them must not leave a slot allocated.
+        checkCodes(task.getPriority(), task.getStatus());
+        byte priority = code(task.getPriority());
+        byte status = code(task.getStatus());
+
+        int sizeClass = Math.max(0, 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_SLOT_SHIFT);
+        long address = allocate(sizeClass);
+        ByteBuffer out = at(segments[segmentOf(address)], offsetOf(address));
+        out.put((byte) sizeClass).put(priority).put(status).put((byte) 0);
+        out.putInt(fromDate(task.getCreatedDate())).putInt(fromDate(task.getDueDate()));
+        out.putInt(task.getId().hashCode());
+        putString(out, id);
+        putString(out, title);
+        putString(out, description);
+        return address;
+    }
+
+    private static Task read(ByteBuffer[] segments, long address, List<String> dictionary) {
+        ByteBuffer in = at(segments[segmentOf(address)], offsetOf(address) + 1);
+        String priority = decode(in.get(), dictionary);
+        String status = decode(in.get(), dictionary);
+        in.get();
+        int created = in.getInt();
+        int due = in.getInt();
+        in.getInt();
+        return new Task(getString(in), getString(in), getString(in), priority, status, toDate(created), toDate(due));
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putInt(-1);
+            return;
+        }
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer segment, int offset) {
+        return getString(at(segment, offset));
+    }
+
+    // Buffer casts keep the Java 8 method signatures when compiled on a newer JDK.
+    private static ByteBuffer at(ByteBuffer segment, int offset) {
+        ByteBuffer view = segment.duplicate();
+        ((Buffer) view).position(offset);
+        return view;
+    }
+
+    private void checkCodes(String priority, String status) {
+        int added = 0;
+        if (priority != null && !codes.containsKey(priority)) {
+            added++;
+        }
+        if (status != null && !codes.containsKey(status) && !status.equals(priority)) {
+            added++;
+        }
+        if (dictionary.size() + added > NULL_CODE) {
+            throw new IllegalStateException("More than " + NULL_CODE + " distinct priority/status values");
+        }
+    }
+
+    private byte code(String value) {
+        if (value == null) {
+            return (byte) NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        return (byte) (int) code;
+    }
+
+    private static String decode(byte code, List<String> dictionary) {
+        int c = code & 0xFF;
+        return c == NULL_CODE ? null : dictionary.get(c);
+    }
+
+    private static int fromDate(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private long allocate(int sizeClass) {
+        releaseDeferred();
+        long head = freeHeads[sizeClass];
+        if (head != NIL) {
+            freeHeads[sizeClass] = segments[segmentOf(head)].getLong(offsetOf(head) + NEXT_FREE);
+            return head;
+        }
+
+        int slotSize = 1 << (sizeClass + MIN_SLOT_SHIFT);
+        if (bump + slotSize > SEGMENT_SIZE) {
+            // The unused tail of a full segment is small compared to the segment; it is not reused.
+            if (segmentCount == segments.length) {
+                segments = Arrays.copyOf(segments, segmentCount * 2);
+            }
+            segments[segmentCount++] = ByteBuffer.allocateDirect(SEGMENT_SIZE);
+            bump = 0;
+        }
+        long address = ((long) (segmentCount - 1) << 32) | bump;
+        bump += slotSize;
+        return address;
+    }
+
+    private void free(long address) {
+        releaseDeferred();
+        if (snapshots.isEmpty()) {
+            pushFree(address);
+        } else {
+            // Linking the slot would overwrite bytes a frozen view may still read.
+            if (deferredCount == deferred.length) {
+                deferred = Arrays.copyOf(deferred, deferredCount * 2);
+            }
+            deferred[deferredCount++] = address;
+        }
+    }
+
+    private void pushFree(long address) {
+        ByteBuffer segment = segments[segmentOf(address)];
+        int sizeClass = segment.get(offsetOf(address));
+        segment.putLong(offsetOf(address) + NEXT_FREE, freeHeads[sizeClass]);
+        freeHeads[sizeClass] = address;
+    }
+
+    private void releaseDeferred() {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            snapshots.remove(ref);
+        }
+        if (!snapshots.isEmpty()) {
+            return;
+        }
+        while (deferredCount > 0) {
+            pushFree(deferred[--deferredCount]);
+        }
+    }
+
+    private static int hash(String id) {
+        return id.hashCode();
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ID hash entries are (i32 id hash, i32 row + 1); row 0 marks an empty entry.
+    private int findEntry(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int hash = hash(id);
+        byte[] wanted = null;
+        for (int entry = mix(hash) & tableMask;; entry = (entry + 1) & tableMask) {
+            int row = table.getInt(entry * 8 + 4) - 1;
+            if (row < 0) {
+                return -1;
+            }
+            if (table.getInt(entry * 8) == hash) {
+                if (wanted == null) {
+                    wanted = id.getBytes(StandardCharsets.UTF_8);
+                }
+                if (idEquals(rows.getLong(row * 8), wanted)) {
+                    return entry;
+                }
+            }
+        }
+    }
+
+    private boolean idEquals(long address, byte[] wanted) {
+        ByteBuffer segment = segments[segmentOf(address)];
+        int offset = offsetOf(address) + HEADER;
+        if (segment.getInt(offset) != wanted.length) {
+            return false;
+        }
+        for (int i = 0; i < wanted.length; i++) {
+            if (segment.get(offset + 4 + i) != wanted[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int entryForRow(int hash, int row) {
+        for (int entry = mix(hash) & tableMask;; entry = (entry + 1) & tableMask) {
+            if (table.getInt(entry * 8 + 4) == row + 1) {
+                return entry;
+            }
+        }
+    }
+
+    private void insertEntry(int hash, int row) {
+        if ((tableSize + 1) * 2 > tableMask + 1) {
+            rehash((tableMask + 1) * 2);
+        }
+        int entry = mix(hash) & tableMask;
+        while (table.getInt(entry * 8 + 4) != 0) {
+            entry = (entry + 1) & tableMask;
+        }
+        table.putInt(entry * 8, hash);
+        table.putInt(entry * 8 + 4, row + 1);
+        tableSize++;
+    }
+
+    private void removeEntry(int entry) {
+        if (entry < 0) {
+            return;
+        }
+        // Backward-shift deletion, as in IntIntHashMap.
+        int gap = entry;
+        for (int next = (gap + 1) & tableMask; table.getInt(next * 8 + 4) != 0; next = (next + 1) & tableMask) {
+            int home = mix(table.getInt(next * 8)) & tableMask;
+            if (((next - home) & tableMask) >= ((next - gap) & tableMask)) {
+                table.putLong(gap * 8, table.getLong(next * 8));
+                gap = next;
+            }
+        }
+        table.putLong(gap * 8, 0);
+        tableSize--;
+    }
+
+    private void rehash(int capacity) {
+        ByteBuffer old = table;
+        int oldCapacity = tableMask + 1;
+        table = ByteBuffer.allocateDirect(capacity * 8);
+        tableMask = capacity - 1;
+        tableSize = 0;
+        for (int entry = 0; entry < oldCapacity; entry++) {
+            int row = old.getInt(entry * 8 + 4);
+            if (row != 0) {
+                insertEntry(old.getInt(entry * 8), row - 1);
+            }
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        ByteBuffer source = buffer.duplicate();
+        ((Buffer) source).clear();
+        grown.put(source);
+        ((Buffer) grown).clear();
+        return grown;
+    }
+}
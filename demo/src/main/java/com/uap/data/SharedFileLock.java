@@ -0,0 +1,64 @@
+package com.uap.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on a lock file, shared by every process that opens the same
+ * data set. A JVM may hold a file lock only once, so instances in the same
+ * process share one channel and queue on a {@link ReentrantLock} first.
+ */
+final class SharedFileLock {
+    private static final ConcurrentMap<String, SharedFileLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final ReentrantLock local = new ReentrantLock();
+    private FileChannel channel;
+    private FileLock held;
+
+    private SharedFileLock(File file) {
+        this.file = file;
+    }
+
+    static SharedFileLock forFile(File file) {
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+        return LOCKS.computeIfAbsent(path, p -> new SharedFileLock(new File(p)));
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    void lock() throws IOException {
+        local.lock();
+        if (local.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            held = channel.lock();
+        } catch (IOException | RuntimeException e) {
+            local.unlock();
+            throw e;
+        }
+    }
+
+    void unlock() throws IOException {
+        try {
+            if (local.getHoldCount() == 1 && held != null) {
+                held.release();
+                held = null;
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.uap.data;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class TaskChangeBatch {
+    private final List<TaskChangeEvent> events;
+    private final long version;
+
+    TaskChangeBatch(List<TaskChangeEvent> events, long version) {
+        this.events = Collections.unmodifiableList(events);
+        this.version = version;
+    }
+
+    public List<TaskChangeEvent> getEvents() {
+        return events;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isSingle() {
+        return events.size() == 1;
+    }
+}
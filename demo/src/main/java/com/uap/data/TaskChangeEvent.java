@@ -0,0 +1,43 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+public final class TaskChangeEvent {
+    public enum Type {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private final Type type;
+    private final Task task;
+    private final Task previous;
+    private final int index;
+
+    TaskChangeEvent(Type type, Task task, Task previous, int index) {
+        this.type = type;
+        this.task = task;
+        this.previous = previous;
+        this.index = index;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** The task as it is now; for {@link Type#REMOVED} the task that was deleted. */
+    public Task getTask() {
+        return task;
+    }
+
+    /** The replaced task for {@link Type#UPDATED}, otherwise {@code null}. */
+    public Task getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Storage index the change applies to. After a {@link Type#REMOVED} the
+     * former last task occupies this index unless it was the one removed.
+     */
+    public int getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,6 @@
+package com.uap.data;
+
+@FunctionalInterface
+public interface TaskChangeListener {
+    void tasksChanged(TaskChangeBatch batch);
+}
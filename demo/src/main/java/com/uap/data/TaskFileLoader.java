@@ -0,0 +1,347 @@
+package com.uap.data;
+
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bulk loader for the task CSV snapshot, in the RFC 4180 form
+ * {@link com.uap.model.TaskCsv} writes. The file is memory-mapped, cut into
+ * chunks on record boundaries and the chunks are parsed in parallel with a
+ * byte level field scanner; results are merged back in file order. Rows that
+ * do not hold a task are skipped and handed to the caller.
+ *
+ * <p>
+ * A line break inside a quoted field does not end a record, so a cut cannot
+ * simply go after the next line break. The file is first scanned in parallel
+ * pieces for their quote count and their first line break at either quote
+ * state; the state at each piece then follows from the counts before it, and
+ * the cut goes after the first line break outside quotes.
+ */
+public final class TaskFileLoader {
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final int MAX_CHUNK = 64 << 20;
+    private static final int FIELDS = 7;
+
+    private static final String[] PRIORITIES = { "High", "Medium", "Low" };
+    private static final String[] STATUSES = { "Pending", "Completed" };
+    private static final String[] NULL = { "null" };
+
+    private static final LongAdder SKIPPED = Metrics.counter("load.csv.skipped");
+
+    private TaskFileLoader() {
+    }
+
+    public static List<Task> load(File file) throws IOException {
+        return load(file, skipped -> {
+        });
+    }
+
+    /** Also hands over the text of every non-blank row that holds no task, in file order. */
+    public static List<Task> load(File file, Consumer<String> onSkipped) throws IOException {
+        long size = file.length();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / Math.max(1, parallelism * 4)));
+        return load(file, chunk, onSkipped);
+    }
+
+    static List<Task> load(File file, long chunkSize, Consumer<String> onSkipped) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+
+            List<long[]> ranges = size <= chunkSize ? Collections.singletonList(new long[] { 0, size })
+                    : splitOnRecords(channel, size, chunkSize);
+            List<ForkJoinTask<Chunk>> parts = new ArrayList<>(ranges.size());
+            for (long[] range : ranges) {
+                parts.add(ForkJoinPool.commonPool().submit(() -> parseRange(channel, range[0], range[1])));
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            for (ForkJoinTask<Chunk> part : parts) {
+                Chunk chunk = part.join();
+                tasks.addAll(chunk.tasks);
+                SKIPPED.add(chunk.skipped.size());
+                chunk.skipped.forEach(onSkipped);
+            }
+            return tasks;
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** Ranges of about {@code chunkSize} bytes, each starting on a record. */
+    static List<long[]> splitOnRecords(FileChannel channel, long size, long chunkSize) {
+        int count = (int) ((size + chunkSize - 1) / chunkSize);
+        List<ForkJoinTask<Piece>> pieces = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long from = i * chunkSize;
+            long to = Math.min(size, from + chunkSize);
+            pieces.add(ForkJoinPool.commonPool().submit(() -> Piece.scan(channel, from, to)));
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        long start = 0;
+        boolean quoted = false;
+        for (int i = 0; i < count; i++) {
+            Piece piece = pieces.get(i).join();
+            long lineBreak = quoted ? piece.firstBreakStartingInside : piece.firstBreakStartingOutside;
+            // A piece without a record end belongs to the range before it.
+            if (i > 0 && lineBreak >= 0) {
+                ranges.add(new long[] { start, lineBreak + 1 });
+                start = lineBreak + 1;
+            }
+            quoted ^= piece.oddQuotes;
+        }
+        if (start < size) {
+            ranges.add(new long[] { start, size });
+        }
+        return ranges;
+    }
+
+    /** What one piece says about where records end, for either quote state at its start. */
+    private static final class Piece {
+        boolean oddQuotes;
+        long firstBreakStartingOutside = -1;
+        long firstBreakStartingInside = -1;
+
+        static Piece scan(FileChannel channel, long from, long to) {
+            MappedByteBuffer mapped;
+            try {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            Piece piece = new Piece();
+            boolean odd = false;
+            int length = (int) (to - from);
+            for (int i = 0; i < length; i++) {
+                byte b = mapped.get(i);
+                if (b == '"') {
+                    odd = !odd;
+                } else if (b == '\n') {
+                    // An odd count so far flips the state the piece started in.
+                    if (!odd && piece.firstBreakStartingOutside < 0) {
+                        piece.firstBreakStartingOutside = from + i;
+                    } else if (odd && piece.firstBreakStartingInside < 0) {
+                        piece.firstBreakStartingInside = from + i;
+                    }
+                }
+            }
+            piece.oddQuotes = odd;
+            return piece;
+        }
+    }
+
+    private static final class Chunk {
+        final List<Task> tasks;
+        /** The text of rows that hold no task. */
+        final List<String> skipped;
+
+        Chunk(List<Task> tasks, List<String> skipped) {
+            this.tasks = tasks;
+            this.skipped = skipped;
+        }
+    }
+
+    private static Chunk parseRange(FileChannel channel, long start, long end) {
+        byte[] buf = new byte[(int) (end - start)];
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, buf.length);
+            mapped.get(buf);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        int pos = 0;
+        if (start == 0 && buf.length >= 3 && (buf[0] & 0xFF) == 0xEF && (buf[1] & 0xFF) == 0xBB
+                && (buf[2] & 0xFF) == 0xBF) {
+            pos = 3;
+        }
+
+        List<Task> tasks = new ArrayList<>(Math.max(16, buf.length / 64));
+        List<String> skipped = new ArrayList<>();
+        Fields fields = new Fields();
+        while (pos < buf.length) {
+            int record = pos;
+            pos = fields.scan(buf, pos);
+            Task task = fields.toTask(buf);
+            if (task != null) {
+                tasks.add(task);
+            } else if (!isBlank(buf, record, pos)) {
+                int to = pos;
+                while (to > record && (buf[to - 1] == '\n' || buf[to - 1] == '\r')) {
+                    to--;
+                }
+                skipped.add(text(buf, record, to));
+            }
+        }
+        return new Chunk(tasks, skipped);
+    }
+
+    private static boolean isBlank(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] != ' ' && buf[i] != '\t' && buf[i] != '\r' && buf[i] != '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Where the fields of one record lie in the buffer, reused from record to record. */
+    private static final class Fields {
+        final int[] start = new int[FIELDS];
+        final int[] end = new int[FIELDS];
+        final boolean[] escaped = new boolean[FIELDS];
+        int count;
+        boolean malformed;
+
+        /** Reads the record at {@code pos}; returns where the next one starts. */
+        int scan(byte[] buf, int pos) {
+            count = 0;
+            malformed = false;
+            int i = pos;
+            while (true) {
+                int from;
+                int to;
+                boolean doubled = false;
+                if (i < buf.length && buf[i] == '"') {
+                    from = ++i;
+                    while (i < buf.length) {
+                        if (buf[i] == '"') {
+                            if (i + 1 < buf.length && buf[i + 1] == '"') {
+                                doubled = true;
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        i++;
+                    }
+                    to = i;
+                    i++;
+                    while (i < buf.length && buf[i] != ',' && buf[i] != '\n') {
+                        if (buf[i] != '\r') {
+                            malformed = true;
+                        }
+                        i++;
+                    }
+                } else {
+                    from = i;
+                    while (i < buf.length && buf[i] != ',' && buf[i] != '\n') {
+                        i++;
+                    }
+                    to = i;
+                    if (to > from && buf[to - 1] == '\r' && (i == buf.length || buf[i] == '\n')) {
+                        to--;
+                    }
+                }
+
+                if (count < FIELDS) {
+                    start[count] = from;
+                    end[count] = to;
+                    escaped[count] = doubled;
+                }
+                count++;
+                if (i < buf.length && buf[i] == ',') {
+                    i++;
+                } else {
+                    return Math.min(i + 1, buf.length);
+                }
+            }
+        }
+
+        Task toTask(byte[] buf) {
+            if (count != FIELDS || malformed) {
+                return null;
+            }
+            LocalDate created;
+            LocalDate due;
+            try {
+                created = parseDate(buf, start[5], end[5]);
+                due = parseDate(buf, start[6], end[6]);
+            } catch (RuntimeException invalid) {
+                return null;
+            }
+            return new Task(
+                    text(buf, 0),
+                    text(buf, 1),
+                    text(buf, 2),
+                    known(buf, start[3], end[3], PRIORITIES),
+                    known(buf, start[4], end[4], STATUSES),
+                    created,
+                    due);
+        }
+
+        private String text(byte[] buf, int field) {
+            String text = TaskFileLoader.text(buf, start[field], end[field]);
+            return escaped[field] ? text.replace("\"\"", "\"") : text;
+        }
+    }
+
+    private static String text(byte[] buf, int from, int to) {
+        return from == to ? "" : new String(buf, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static String known(byte[] buf, int from, int to, String[] candidates) {
+        for (String candidate : candidates) {
+            if (candidate.length() == to - from) {
+                int i = 0;
+                while (i < candidate.length() && buf[from + i] == candidate.charAt(i)) {
+                    i++;
+                }
+                if (i == candidate.length()) {
+                    return candidate;
+                }
+            }
+        }
+        return text(buf, from, to);
+    }
+
+    // Null for an empty field or "null"; anything else that is not a date throws.
+    private static LocalDate parseDate(byte[] buf, int from, int to) {
+        if (from == to || to - from == 4 && known(buf, from, to, NULL) == NULL[0]) {
+            return null;
+        }
+        if (to - from == 10 && buf[from + 4] == '-' && buf[from + 7] == '-') {
+            int year = digits(buf, from, 4);
+            int month = digits(buf, from + 5, 2);
+            int day = digits(buf, from + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text(buf, from, to));
+    }
+
+    private static int digits(byte[] buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,530 @@
+package com.uap.data;
+
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+import com.uap.model.TaskCsv;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Append-only change log next to the task snapshot. Each edit appends one
+ * {@code U,<task csv>} or {@code D,<id>} record, written with {@link TaskCsv}
+ * so a record may span lines; once the log passes the threshold it is folded
+ * into a fresh snapshot in the background. Records are idempotent, so
+ * replaying an already folded log is harmless.
+ *
+ * <p>
+ * In shared mode several processes use the same files. Every append,
+ * rotation and fold then runs under a lock file, appends are synced before
+ * the lock is released, and compaction folds the files on disk rather than
+ * one process's view of them.
+ *
+ * <p>
+ * The sequence file holds the last issued ID and, on a second line, how many
+ * times the log has been folded. A shared log starts with an ID line that
+ * also carries that count, so a reader can tell whether logs came and went
+ * between two looks.
+ */
+public class TaskJournal {
+    public static final long DEFAULT_COMPACT_THRESHOLD = 1024 * 1024;
+
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+    private static final String FILE_ID = "#";
+
+    private static final LongAdder COMMITS = Metrics.counter("journal.commits");
+    private static final LongAdder COMPACTIONS = Metrics.counter("journal.compactions");
+    private static final LatencyHistogram SNAPSHOT_TIME = Metrics.timer("snapshot.write");
+    private static final LatencyHistogram SNAPSHOT_BYTES = Metrics.size("snapshot.bytes");
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File compactingFile;
+    private final File sequenceFile;
+    private final File binaryFile;
+    private final long compactThreshold;
+    private final SharedFileLock sharedLock;
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "task-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private final Consumer<IOException> errorHandler;
+    private final JournalSink sink = new JournalSink();
+    private final GroupCommitWriter writer;
+    private long journalBytes;
+
+    public TaskJournal(File snapshotFile, long compactThreshold, DurabilityPolicy policy,
+            Consumer<IOException> errorHandler) {
+        this(snapshotFile, compactThreshold, policy, errorHandler, false);
+    }
+
+    public TaskJournal(File snapshotFile, long compactThreshold, DurabilityPolicy policy,
+            Consumer<IOException> errorHandler, boolean shared) {
+        this.sharedLock = shared ? SharedFileLock.forFile(new File(snapshotFile.getPath() + ".lock")) : null;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = new File(snapshotFile.getPath() + ".journal");
+        this.compactingFile = new File(snapshotFile.getPath() + ".journal.compacting");
+        this.sequenceFile = new File(snapshotFile.getPath() + ".seq");
+        this.binaryFile = BinarySnapshot.fileFor(snapshotFile);
+        this.compactThreshold = compactThreshold;
+        this.journalBytes = journalFile.length();
+        this.errorHandler = errorHandler;
+        this.writer = new GroupCommitWriter("task-journal-writer", sink, policy, errorHandler);
+    }
+
+    public long getCommitBatchCount() {
+        return writer.getBatchCount();
+    }
+
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public File getBinaryFile() {
+        return binaryFile;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    File getCompactingFile() {
+        return compactingFile;
+    }
+
+    public boolean isShared() {
+        return sharedLock != null;
+    }
+
+    /** Keeps other processes from appending or compacting; does nothing unless shared. */
+    void lock() throws IOException {
+        if (sharedLock != null) {
+            sharedLock.lock();
+        }
+    }
+
+    void unlock() throws IOException {
+        if (sharedLock != null) {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * Hands out {@code count} consecutive IDs through the sequence file, so
+     * processes sharing the files never pick the same one. Returns the last.
+     */
+    long reserveIds(long atLeast, int count) throws IOException {
+        lock();
+        try {
+            long id = Math.max(readSequence(), atLeast) + count;
+            writeSequence(id, readFolds());
+            return id;
+        } finally {
+            unlock();
+        }
+    }
+
+    public long readSequence() {
+        return readSequenceLine(0);
+    }
+
+    /** How many times the log has been folded into the snapshot. */
+    long readFolds() {
+        return readSequenceLine(1);
+    }
+
+    private long readSequenceLine(int line) {
+        if (!sequenceFile.exists()) {
+            return 0;
+        }
+        try {
+            String[] lines = new String(Files.readAllBytes(sequenceFile.toPath()), StandardCharsets.UTF_8).trim()
+                    .split("\n");
+            String raw = line < lines.length ? lines[line].trim() : "";
+            return raw.isEmpty() ? 0 : Long.parseLong(raw);
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeSequence(long lastId, long folds) throws IOException {
+        Files.write(sequenceFile.toPath(), (lastId + "\n" + folds).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void replay(Consumer<Task> onUpsert, Consumer<String> onDelete) throws IOException {
+        replayFile(compactingFile, onUpsert, onDelete);
+        replayFile(journalFile, onUpsert, onDelete);
+    }
+
+    private void replayFile(File file, Consumer<Task> onUpsert, Consumer<String> onDelete) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            TaskCsv.Scanner records = new TaskCsv.Scanner(reader);
+            while (records.next()) {
+                applyRecord(records, onUpsert, onDelete);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The ID line a shared log starts with, or an empty string for a log
+     * without one. Not used for replay, which skips the line.
+     *
+     * @see #foldsBefore(String)
+     */
+    static String readFileId(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(64);
+        channel.read(head, 0);
+        String text = new String(head.array(), 0, head.position(), StandardCharsets.UTF_8);
+        int end = text.indexOf('\n');
+        return text.startsWith(FILE_ID) && end > 0 ? text.substring(0, end) : "";
+    }
+
+    /** The fold count an ID line was written under, or -1 if it carries none. */
+    static long foldsBefore(String fileId) {
+        int space = fileId.indexOf(' ');
+        if (space < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileId.substring(space + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void applyRecord(String record, Consumer<Task> onUpsert, Consumer<String> onDelete) {
+        TaskCsv.Scanner scanner = new TaskCsv.Scanner().reset(record);
+        if (scanner.next()) {
+            applyRecord(scanner, onUpsert, onDelete);
+        }
+    }
+
+    private static void applyRecord(TaskCsv.Scanner record, Consumer<Task> onUpsert, Consumer<String> onDelete) {
+        try {
+            if (record.is(0, UPSERT)) {
+                onUpsert.accept(record.task(1));
+            } else if (record.is(0, DELETE) && record.fieldCount() == 2) {
+                onDelete.accept(record.field(1));
+            }
+        } catch (RuntimeException torn) {
+            // A record cut short by a crash; everything before it is still valid.
+        }
+    }
+
+    /**
+     * Cuts off a record left half written by a crash, so that the next one
+     * appended does not end up inside it, for instance in a quoted field that
+     * never closed. Only a log not ending in a line break is scanned.
+     */
+    static void dropTornTail(File file) throws IOException {
+        if (file.length() == 0) {
+            return;
+        }
+        try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+            long size = log.length();
+            log.seek(size - 1);
+            if (log.read() != '\n') {
+                log.setLength(recordEnd(log.getChannel(), size));
+            }
+        }
+    }
+
+    // Where the last record that ends in a line break outside quotes ends.
+    private static long recordEnd(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long position = 0;
+        long recordEnd = 0;
+        boolean quoted = false;
+        while (position < size) {
+            ((Buffer) buffer).clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    recordEnd = position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return recordEnd;
+    }
+
+    /** The snapshot with every logged record applied, read from disk. */
+    Map<String, Task> readAll() throws IOException {
+        Map<String, Task> tasks = new LinkedHashMap<>();
+        if (binaryFile.exists()) {
+            for (Task task : BinarySnapshot.read(binaryFile).getTasks()) {
+                tasks.put(task.getId(), task);
+            }
+        } else if (snapshotFile.exists()) {
+            for (Task task : TaskFileLoader.load(snapshotFile)) {
+                tasks.put(task.getId(), task);
+            }
+        }
+        replay(task -> tasks.put(task.getId(), task), tasks::remove);
+        return tasks;
+    }
+
+    public static void appendUpsert(Task task, StringBuilder records) {
+        records.append(UPSERT).append(',');
+        TaskCsv.append(task, records);
+        records.append('\n');
+    }
+
+    public static void appendDelete(String id, StringBuilder records) {
+        records.append(DELETE).append(',');
+        TaskCsv.appendField(id, records);
+        records.append('\n');
+    }
+
+    /**
+     * Queues records built by {@link #appendUpsert} / {@link #appendDelete} as
+     * one commit. Records sent in shared mode reach the file whole and in
+     * commit order.
+     */
+    public CompletableFuture<Void> commit(String records) {
+        // The bytes the writer appends, so the threshold means the same as the file size.
+        long bytes = utf8Length(records);
+        synchronized (this) {
+            journalBytes += bytes;
+        }
+        COMMITS.increment();
+        return writer.submit(records);
+    }
+
+    static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < 0x80) {
+                bytes++;
+            } else if (ch < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                // A lone surrogate is encoded as '?'.
+                bytes += Character.isSurrogate(ch) ? 1 : 3;
+            }
+        }
+        return bytes;
+    }
+
+    private final class JournalSink implements GroupCommitWriter.Sink {
+        private FileOutputStream out;
+
+        @Override
+        public void write(byte[] batch) throws IOException {
+            if (sharedLock != null) {
+                writeShared(batch);
+                return;
+            }
+            if (out == null) {
+                dropTornTail(journalFile);
+                out = new FileOutputStream(journalFile, true);
+            }
+            out.write(batch);
+        }
+
+        // Another process may rotate the log between commits, so it is reopened every time.
+        private void writeShared(byte[] batch) throws IOException {
+            sharedLock.lock();
+            try (FileOutputStream shared = new FileOutputStream(journalFile, true)) {
+                dropTornTail(journalFile);
+                if (shared.getChannel().size() == 0) {
+                    // Tells this log apart from an earlier one, even one that had the same inode.
+                    String id = FILE_ID + UUID.randomUUID() + " " + readFolds() + "\n";
+                    byte[] header = id.getBytes(StandardCharsets.UTF_8);
+                    byte[] both = Arrays.copyOf(header, header.length + batch.length);
+                    System.arraycopy(batch, 0, both, header.length, batch.length);
+                    batch = both;
+                }
+                shared.write(batch);
+                shared.getChannel().force(false);
+            } finally {
+                sharedLock.unlock();
+            }
+        }
+
+        @Override
+        public void sync() throws IOException {
+            if (out != null) {
+                out.getChannel().force(false);
+            }
+        }
+
+        void close() throws IOException {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+    }
+
+    public synchronized boolean needsCompaction() {
+        // Shared logs also grow with other processes' records.
+        long size = sharedLock != null ? journalFile.length() : journalBytes;
+        return size >= compactThreshold && !compacting.get();
+    }
+
+    /**
+     * Rotates the current log aside and writes {@code tasks} as the new
+     * snapshot in the background. The caller must pass a copy that reflects
+     * every record appended so far and is not mutated afterwards, together
+     * with the highest ID handed out so far. In shared mode both are ignored
+     * and the files are folded as they are on disk. The returned future
+     * completes once {@code tasks} is no longer read.
+     */
+    public synchronized CompletableFuture<Void> compact(List<Task> tasks, long lastId) {
+        CompletableFuture<Void> read = new CompletableFuture<>();
+        if (!compacting.compareAndSet(false, true)) {
+            read.complete(null);
+            return read;
+        }
+        journalBytes = 0;
+        COMPACTIONS.increment();
+
+        if (sharedLock != null) {
+            read.complete(null);
+            compactor.execute(() -> {
+                try {
+                    foldShared();
+                } catch (IOException e) {
+                    errorHandler.accept(e);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+            return read;
+        }
+
+        // Rotation runs on the writer thread, after every record queued before this call.
+        writer.submit(() -> {
+            try {
+                rotate();
+            } catch (IOException e) {
+                compacting.set(false);
+                read.complete(null);
+                throw e;
+            }
+            compactor.execute(() -> {
+                try {
+                    writeSnapshot(tasks, lastId);
+                    Files.deleteIfExists(compactingFile.toPath());
+                } catch (IOException e) {
+                    errorHandler.accept(e);
+                } finally {
+                    compacting.set(false);
+                    read.complete(null);
+                }
+            });
+        });
+        return read;
+    }
+
+    private void rotate() throws IOException {
+        sink.close();
+        if (journalFile.exists()) {
+            if (compactingFile.exists()) {
+                // A previous compaction died before finishing; keep its records in front.
+                appendFile(journalFile, compactingFile);
+                Files.delete(journalFile.toPath());
+            } else {
+                Files.move(journalFile.toPath(), compactingFile.toPath());
+            }
+        }
+    }
+
+    // Holds the lock throughout: other processes' appends wait, and no reader sees a half-folded set.
+    private void foldShared() throws IOException {
+        sharedLock.lock();
+        try {
+            if (!journalFile.exists() && !compactingFile.exists()) {
+                // Another process folded first; counting an empty fold would only send readers to resync.
+                return;
+            }
+            rotate();
+            Map<String, Task> tasks = readAll();
+            long lastId = readSequence();
+            for (String id : tasks.keySet()) {
+                try {
+                    lastId = Math.max(lastId, Long.parseLong(id.trim()));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            writeSnapshot(new ArrayList<>(tasks.values()), lastId);
+            Files.deleteIfExists(compactingFile.toPath());
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    public void writeSnapshot(List<Task> tasks, long lastId) throws IOException {
+        // Written first: a sequence ahead of the snapshot only skips IDs, never reuses them.
+        long start = System.nanoTime();
+        writeSequence(lastId, readFolds() + 1);
+        BinarySnapshot.write(binaryFile, tasks, lastId);
+        SNAPSHOT_TIME.stop(start);
+        SNAPSHOT_BYTES.record(binaryFile.length());
+    }
+
+    private static void appendFile(File from, File to) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(to, true)) {
+            Files.copy(from.toPath(), out);
+        }
+    }
+
+    public void close() throws IOException {
+        writer.close();
+        sink.close();
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index over task titles and descriptions. Every query term is
+ * matched as a token prefix and all terms must match (AND).
+ *
+ * <p>
+ * Writers are serialized among themselves, but a search takes no lock: it
+ * reads the concurrent maps as they are, so a long search never holds up a
+ * write. A task changed while a search runs may be seen in either state.
+ */
+public class TaskSearchIndex {
+    private static final String[] NO_TOKENS = new String[0];
+    private static final int SMALL_RANGE = 4;
+
+    private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, String[]> tokensById = new ConcurrentHashMap<>();
+
+    public synchronized void add(Task task) {
+        String[] tokens = tokenizeUnique(task.getTitle(), task.getDescription());
+        if (tokens.length == 0) {
+            return;
+        }
+
+        tokensById.put(task.getId(), tokens);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(task.getId());
+        }
+    }
+
+    public synchronized void remove(Task task) {
+        String[] tokens = tokensById.remove(task.getId());
+        if (tokens == null) {
+            return;
+        }
+
+        for (String token : tokens) {
+            Set<String> ids = postings.get(token);
+            if (ids != null && ids.remove(task.getId()) && ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        tokensById.clear();
+    }
+
+    /**
+     * Safe to call from a background thread; throws {@link CancellationException}
+     * if the calling thread is interrupted while the result is being built.
+     */
+    public Set<String> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        // Expand the term with the fewest postings and filter its candidates by the others.
+        // Terms that cover only a few tokens are checked against their postings, the rest
+        // against the candidate's own tokens.
+        List<Collection<Set<String>>> ranges = new ArrayList<>(terms.size());
+        int seed = 0;
+        long seedSize = Long.MAX_VALUE;
+        for (int i = 0; i < terms.size(); i++) {
+            Collection<Set<String>> range = withPrefix(terms.get(i)).values();
+            List<Set<String>> small = new ArrayList<>(SMALL_RANGE);
+            long size = 0;
+            for (Set<String> ids : range) {
+                if (small != null) {
+                    small = small.size() < SMALL_RANGE ? small : null;
+                    if (small != null) {
+                        small.add(ids);
+                    }
+                }
+                size += ids.size();
+                if (size >= seedSize && small == null) {
+                    break;
+                }
+            }
+            ranges.add(small != null ? small : range);
+            if (size < seedSize) {
+                seed = i;
+                seedSize = size;
+            }
+        }
+
+        Set<String> result = new HashSet<>();
+        int checked = 0;
+        for (Set<String> ids : ranges.get(seed)) {
+            for (String id : ids) {
+                if ((++checked & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("search superseded");
+                }
+                if (matchesOthers(id, seed, terms, ranges)) {
+                    result.add(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * What {@link #search} would find in an index of {@code tasks}, found by
+     * reading every task instead. Throws {@link CancellationException} as
+     * {@link #search} does.
+     */
+    public static Set<String> scan(TaskSnapshot tasks, String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if ((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("search superseded");
+            }
+            Task task = tasks.get(i);
+            String[] tokens = tokenizeUnique(task.getTitle(), task.getDescription());
+            boolean all = true;
+            for (String term : terms) {
+                boolean found = false;
+                for (String token : tokens) {
+                    if (token.startsWith(term)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                result.add(task.getId());
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<String, Set<String>> withPrefix(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private boolean matchesOthers(String id, int seed, List<String> terms, List<Collection<Set<String>>> ranges) {
+        String[] tokens = null;
+        for (int i = 0; i < terms.size(); i++) {
+            if (i == seed) {
+                continue;
+            }
+
+            Collection<Set<String>> range = ranges.get(i);
+            boolean found = false;
+            if (range instanceof List) {
+                for (Set<String> ids : range) {
+                    if (ids.contains(id)) {
+                        found = true;
+                        break;
+                    }
+                }
+            } else {
+                if (tokens == null) {
+                    tokens = tokensById.get(id);
+                    if (tokens == null) {
+                        // Removed since its posting was read.
+                        return false;
+                    }
+                }
+                for (String token : tokens) {
+                    if (token.startsWith(terms.get(i))) {
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] tokenizeUnique(String... texts) {
+        Set<String> unique = new HashSet<>();
+        for (String text : texts) {
+            unique.addAll(tokenize(text));
+        }
+        return unique.isEmpty() ? NO_TOKENS : unique.toArray(NO_TOKENS);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,86 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * All tasks as of one {@link DataManager#getVersion() version}. Never
+ * changes after it is made, so any thread may read it without locking. The
+ * tasks it hands out come from {@link TaskStore#freeze()}: each is a separate
+ * object, and changing one changes neither the snapshot nor the store.
+ *
+ * <p>
+ * Every {@link DataManager#snapshot()} call takes a hold on the snapshot, and
+ * {@link #close()} gives it back. Once all holds are given back the store may
+ * reuse the memory the snapshot shares with it; a snapshot that is never
+ * closed keeps it until it is garbage collected.
+ */
+public final class TaskSnapshot implements AutoCloseable {
+    private final long version;
+    private final List<Task> tasks;
+    private final Map<String, Long> statusCounts;
+    private final Map<String, Long> priorityCounts;
+    private final Runnable release;
+    private final AtomicInteger holds = new AtomicInteger(1);
+
+    /** Starts with one hold, the maker's; {@code release} runs when the last one is given back. */
+    TaskSnapshot(long version, List<Task> tasks, Map<String, Long> statusCounts, Map<String, Long> priorityCounts,
+            Runnable release) {
+        this.version = version;
+        this.tasks = tasks;
+        this.statusCounts = new HashMap<>(statusCounts);
+        this.priorityCounts = new HashMap<>(priorityCounts);
+        this.release = release;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** Unmodifiable, in the storage order of that version. */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /** Same as {@code getTasks().get(index)}; stores that keep tasks encoded decode only this one. */
+    public Task get(int index) {
+        return tasks.get(index);
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public long countByStatus(String status) {
+        return statusCounts.getOrDefault(status, 0L);
+    }
+
+    public long countByPriority(String priority) {
+        return priorityCounts.getOrDefault(priority, 0L);
+    }
+
+    /** Another hold, or false if the last one was already given back. */
+    boolean retain() {
+        while (true) {
+            int current = holds.get();
+            if (current == 0) {
+                return false;
+            }
+            if (holds.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Gives back the hold taken by one {@link DataManager#snapshot()} call; the snapshot must not be read after. */
+    @Override
+    public void close() {
+        if (holds.decrementAndGet() == 0) {
+            release.run();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.uap.data;
+
+import com.uap.model.Task;
+
+import java.util.List;
+
+/**
+ * Dense, index-addressed task storage behind DataManager. Deletes move the
+ * last task into the freed index, so indexes stay in {@code [0, size)}.
+ * Tasks passed in or handed out are never the store's own objects, so
+ * changing them later changes neither the store nor a frozen copy.
+ */
+public interface TaskStore {
+    /** {@code "list"}, {@code "columnar"} or {@code "offheap"}. */
+    static TaskStore create(String kind) {
+        switch (kind) {
+            case "list":
+                return new ListTaskStore();
+            case "columnar":
+                return new ColumnarTaskStore();
+            case "offheap":
+                return new OffHeapTaskStore();
+            default:
+                throw new IllegalArgumentException("Unknown task store: " + kind);
+        }
+    }
+
+    int size();
+
+    Task get(int index);
+
+    /** Same as {@code get(index).getId()}; stores override it to avoid decoding the whole task. */
+    default String idAt(int index) {
+        return get(index).getId();
+    }
+
+    default String statusAt(int index) {
+        return get(index).getStatus();
+    }
+
+    /** Index of the task with this ID, or -1. */
+    int indexOf(String id);
+
+    /** Appends a task whose ID is not stored yet. */
+    void add(Task task);
+
+    /** Replaces the task at {@code index} and returns the previous one. */
+    Task set(int index, Task task);
+
+    /** Removes the task at {@code index}, moving the last task into its place. */
+    Task removeSwap(int index);
+
+    /** Epoch day of {@code get(index).getDueDate()}, or {@link Integer#MIN_VALUE} without one. */
+    default int dueDayAt(int index) {
+        return DueDateIndex.dayOf(get(index));
+    }
+
+    /** A copy that later changes to the store do not affect, safe to hand to another thread. */
+    List<Task> freeze();
+
+    /** Tells the store {@code frozen}, from {@link #freeze()}, will not be read again. */
+    default void release(List<Task> frozen) {
+    }
+
+    /**
+     * False for a store that keeps the heap flat: DataManager then keeps no
+     * search or due-date index of its own and scans the store instead.
+     */
+    default boolean allowsHeapIndexes() {
+        return true;
+    }
+}
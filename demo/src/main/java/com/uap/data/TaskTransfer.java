@@ -0,0 +1,533 @@
+package com.uap.data;
+
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+import com.uap.model.TaskCsv;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streaming import and export of tasks as CSV or JSON Lines. Files are read
+ * and written a record at a time, so their size is not limited by the heap.
+ *
+ * <p>
+ * Imported rows are validated on the calling thread. Rows that fail are
+ * skipped and listed in a report file next to the source. The rest are
+ * handed over {@value #BATCH_SIZE} at a time to the thread that owns the
+ * DataManager, which applies each batch in turns of at most
+ * {@link #TURN_MILLIS} ms, one {@link DataManager#batch} each, so that the
+ * thread's other work runs in between.
+ */
+public final class TaskTransfer {
+    public static final int BATCH_SIZE = 5000;
+    /** How long one turn on the owning thread may apply rows; a turn applies at least one. */
+    public static final long TURN_MILLIS = 10;
+    /** How many errors a {@link Report} keeps in memory; the report file has them all. */
+    public static final int REPORTED_ERRORS = 20;
+
+    private static final LatencyHistogram IMPORT_TIME = Metrics.timer("transfer.import");
+    private static final LatencyHistogram EXPORT_TIME = Metrics.timer("transfer.export");
+    private static final int PROGRESS_EVERY = 10_000;
+
+    public enum Format {
+        CSV, JSONL;
+
+        /** JSON Lines for {@code .jsonl}, {@code .ndjson} and {@code .json} files, otherwise CSV. */
+        public static Format of(File file) {
+            String name = file.getName().toLowerCase();
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json") ? JSONL : CSV;
+        }
+    }
+
+    /** Where a running import or export has got to. */
+    public static final class Progress {
+        private final long rows;
+        private final long skipped;
+        private final long done;
+        private final long total;
+        private final long nanos;
+
+        Progress(long rows, long skipped, long done, long total, long nanos) {
+            this.rows = rows;
+            this.skipped = skipped;
+            this.done = done;
+            this.total = total;
+            this.nanos = nanos;
+        }
+
+        /** Rows imported or exported so far. */
+        public long getRows() {
+            return rows;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /** Between 0 and 1: bytes read for an import, rows written for an export. */
+        public double getFraction() {
+            return total <= 0 ? 1 : Math.min(1, (double) done / total);
+        }
+
+        public long getElapsedNanos() {
+            return nanos;
+        }
+
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : (rows + skipped) * 1e9 / nanos;
+        }
+    }
+
+    /** Outcome of an import. */
+    public static final class Report {
+        private final Progress progress;
+        private final List<String> errors;
+        private final File errorFile;
+
+        Report(Progress progress, List<String> errors, File errorFile) {
+            this.progress = progress;
+            this.errors = Collections.unmodifiableList(errors);
+            this.errorFile = errorFile;
+        }
+
+        public long getImported() {
+            return progress.getRows();
+        }
+
+        public long getSkipped() {
+            return progress.getSkipped();
+        }
+
+        public Progress getProgress() {
+            return progress;
+        }
+
+        /** The first {@link #REPORTED_ERRORS} problems, as "line N: reason". */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /** Every problem, one per line; {@code null} if no row was skipped. */
+        public File getErrorFile() {
+            return errorFile;
+        }
+    }
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Reads {@code source} and adds its tasks to {@code dataManager}. With
+     * {@code keepIds}, rows replace the tasks with the same ID; otherwise, and
+     * for rows without an ID, new IDs are issued. Each batch runs on
+     * {@code updates}, the thread that uses the DataManager, in turns of at
+     * most {@link #TURN_MILLIS} ms; one batch is applied there while the next
+     * is read, so reading never gets far ahead. Blocks until every batch is
+     * committed.
+     */
+    public static Report importTasks(DataManager dataManager, File source, Format format, boolean keepIds,
+            Executor updates, Consumer<Progress> progress) throws IOException {
+        return importTasks(dataManager, source, format, keepIds, updates, progress,
+                TimeUnit.MILLISECONDS.toNanos(TURN_MILLIS));
+    }
+
+    static Report importTasks(DataManager dataManager, File source, Format format, boolean keepIds,
+            Executor updates, Consumer<Progress> progress, long turnNanos) throws IOException {
+        long start = System.nanoTime();
+        long total = source.length();
+        File errorFile = new File(source.getPath() + ".errors.txt");
+        List<String> errors = new ArrayList<>();
+        long imported = 0;
+        long skipped = 0;
+        long processed = 0;
+
+        Semaphore queued = new Semaphore(1);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        PrintWriter errorLog = null;
+        try (CountingInputStream counter = new CountingInputStream(new FileInputStream(source));
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(counter, StandardCharsets.UTF_8), 1 << 16)) {
+            List<Task> batch = new ArrayList<>(BATCH_SIZE);
+            Rows rows = format == Format.CSV ? new CsvRows(reader) : new JsonRows(reader);
+            while (rows.next()) {
+                processed++;
+                try {
+                    batch.add(rows.parse());
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    skipped++;
+                    String error = "line " + rows.line + ": " + e.getMessage();
+                    if (errors.size() < REPORTED_ERRORS) {
+                        errors.add(error);
+                    }
+                    if (errorLog == null) {
+                        errorLog = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                                new FileOutputStream(errorFile), StandardCharsets.UTF_8)));
+                    }
+                    errorLog.println(error);
+                }
+
+                if (batch.size() == BATCH_SIZE) {
+                    imported += batch.size();
+                    commit(dataManager, batch, keepIds, updates, turnNanos, queued, failure);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+                if (progress != null && processed % PROGRESS_EVERY == 0) {
+                    progress.accept(new Progress(imported, skipped, counter.count, total, System.nanoTime() - start));
+                }
+            }
+            imported += batch.size();
+            commit(dataManager, batch, keepIds, updates, turnNanos, queued, failure);
+
+            // The permit back means the last batch has run.
+            queued.acquireUninterruptibly();
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        } finally {
+            if (errorLog != null) {
+                errorLog.close();
+            }
+        }
+        if (errorLog == null) {
+            Files.deleteIfExists(errorFile.toPath());
+        }
+
+        IMPORT_TIME.stop(start);
+        Progress last = new Progress(imported, skipped, total, total, System.nanoTime() - start);
+        if (progress != null) {
+            progress.accept(last);
+        }
+        return new Report(last, errors, errorLog == null ? null : errorFile);
+    }
+
+    // Batches run one at a time, so their rows reach the DataManager in file order.
+    private static void commit(DataManager dataManager, List<Task> tasks, boolean keepIds, Executor updates,
+            long turnNanos, Semaphore queued, AtomicReference<RuntimeException> failure) {
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        // Rows keeping their ID go first, so the IDs issued afterwards do not collide with them.
+        List<Task> kept = new ArrayList<>();
+        List<Task> needIds = new ArrayList<>();
+        for (Task task : tasks) {
+            if (keepIds && !task.getId().isEmpty()) {
+                kept.add(task);
+            } else {
+                needIds.add(task);
+            }
+        }
+        queued.acquireUninterruptibly();
+        updates.execute(new Turns(dataManager, kept, needIds, updates, turnNanos, queued, failure));
+    }
+
+    /** One batch on the owning thread; each run is one turn, and it queues itself again until the batch is done. */
+    private static final class Turns implements Runnable {
+        private final DataManager dataManager;
+        private final List<Task> kept;
+        private final List<Task> needIds;
+        private final Executor updates;
+        private final long turnNanos;
+        private final Semaphore queued;
+        private final AtomicReference<RuntimeException> failure;
+        private List<String> ids;
+        private int next;
+
+        Turns(DataManager dataManager, List<Task> kept, List<Task> needIds, Executor updates, long turnNanos,
+                Semaphore queued, AtomicReference<RuntimeException> failure) {
+            this.dataManager = dataManager;
+            this.kept = kept;
+            this.needIds = needIds;
+            this.updates = updates;
+            this.turnNanos = turnNanos;
+            this.queued = queued;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            int total = kept.size() + needIds.size();
+            try {
+                long deadline = System.nanoTime() + turnNanos;
+                dataManager.batch(() -> {
+                    do {
+                        if (next < kept.size()) {
+                            put(dataManager, kept.get(next));
+                        } else {
+                            if (ids == null) {
+                                ids = dataManager.generateUniqueIds(needIds.size());
+                            }
+                            int i = next - kept.size();
+                            put(dataManager, withId(needIds.get(i), ids.get(i)));
+                        }
+                        next++;
+                    } while (next < total && System.nanoTime() - deadline < 0);
+                });
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                next = total;
+            }
+            if (next < total) {
+                updates.execute(this);
+            } else {
+                queued.release();
+            }
+        }
+    }
+
+    private static void put(DataManager dataManager, Task task) {
+        if (dataManager.indexOf(task.getId()) >= 0) {
+            dataManager.updateTask(task.getId(), task);
+        } else {
+            dataManager.addTask(task);
+        }
+    }
+
+    /** Writes every task to {@code target}, replacing it only once the whole file is written. */
+    public static long exportTasks(DataManager dataManager, File target, Format format, Consumer<Progress> progress)
+            throws IOException {
+        long start = System.nanoTime();
+        // The snapshot's frozen store decodes one task per get, so no list of tasks is built.
+        File tmp = new File(target.getPath() + ".tmp");
+        int total;
+        long rows = 0;
+        try (TaskSnapshot snapshot = dataManager.snapshot(); Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8), 1 << 16)) {
+            total = snapshot.size();
+            StringBuilder line = new StringBuilder(256);
+            for (int i = 0; i < total; i++) {
+                Task task = snapshot.get(i);
+                line.setLength(0);
+                if (format == Format.CSV) {
+                    TaskCsv.append(task, line);
+                } else {
+                    JsonLines.write(task, line);
+                }
+                line.append('\n');
+                writer.append(line);
+                rows++;
+                if (progress != null && rows % PROGRESS_EVERY == 0) {
+                    progress.accept(new Progress(rows, 0, rows, total, System.nanoTime() - start));
+                }
+            }
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        EXPORT_TIME.stop(start);
+        if (progress != null) {
+            progress.accept(new Progress(rows, 0, rows, total, System.nanoTime() - start));
+        }
+        return rows;
+    }
+
+    /** The records of an import file, blank lines and a CSV header left out. */
+    private abstract static class Rows {
+        /** Where the current record starts. */
+        long line;
+
+        abstract boolean next() throws IOException;
+
+        abstract Task parse();
+    }
+
+    private static final class CsvRows extends Rows {
+        private final TaskCsv.Scanner scanner;
+
+        CsvRows(Reader reader) {
+            scanner = new TaskCsv.Scanner(reader);
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                while (scanner.next()) {
+                    line = scanner.line();
+                    boolean header = line == 1 && scanner.field(0).trim().equalsIgnoreCase("id");
+                    boolean blank = scanner.fieldCount() == 1 && scanner.field(0).trim().isEmpty();
+                    if (!header && !blank) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        Task parse() {
+            return parseCsv(scanner);
+        }
+    }
+
+    private static final class JsonRows extends Rows {
+        private final BufferedReader reader;
+        private String current;
+
+        JsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            while ((current = reader.readLine()) != null) {
+                line++;
+                if (!current.trim().isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Task parse() {
+            return parseJson(current);
+        }
+    }
+
+    static Task parseCsv(TaskCsv.Scanner scanner) {
+        if (scanner.fieldCount() != TaskCsv.FIELDS) {
+            throw new IllegalArgumentException(
+                    "expected " + TaskCsv.FIELDS + " fields, found " + scanner.fieldCount());
+        }
+        String[] fields = new String[TaskCsv.FIELDS];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = scanner.field(i);
+        }
+        return validate(fields);
+    }
+
+    static Task parseJson(String line) {
+        Map<String, String> values = JsonLines.read(line);
+        String[] fields = new String[JsonLines.FIELDS.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = values.get(JsonLines.FIELDS[i]);
+        }
+        return validate(fields);
+    }
+
+    // Fields in the order of JsonLines.FIELDS; an empty ID is filled in when the task is added.
+    private static Task validate(String[] fields) {
+        String id = trim(fields[0]);
+        String title = trim(fields[1]);
+        if (title.isEmpty()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        String description = fields[2] == null ? "" : fields[2];
+        String priority = known(fields[3], "priority", "High", "Medium", "Low");
+        String status = known(fields[4], "status", "Pending", "Completed");
+        LocalDate created = date(fields[5]);
+        LocalDate due = date(fields[6]);
+        return new Task(id, title, description, priority, status, created == null ? LocalDate.now() : created, due);
+    }
+
+    private static String known(String value, String field, String... allowed) {
+        String trimmed = trim(value);
+        for (String candidate : allowed) {
+            if (candidate.equalsIgnoreCase(trimmed)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException(field + " must be one of " + String.join(", ", allowed) + ": '"
+                + trimmed + "'");
+    }
+
+    private static LocalDate date(String value) {
+        String trimmed = trim(value);
+        if (trimmed.isEmpty() || trimmed.equals("null")) {
+            return null;
+        }
+        // yyyy-MM-dd without going through DateTimeFormatter; LocalDate.of still rejects impossible dates.
+        if (trimmed.length() == 10 && trimmed.charAt(4) == '-' && trimmed.charAt(7) == '-') {
+            int year = digits(trimmed, 0, 4);
+            int month = digits(trimmed, 5, 2);
+            int day = digits(trimmed, 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    throw new IllegalArgumentException("invalid date '" + trimmed + "': " + e.getMessage());
+                }
+            }
+        }
+        return LocalDate.parse(trimmed);
+    }
+
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + ch - '0';
+        }
+        return value;
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static Task withId(Task task, String id) {
+        return new Task(id, task.getTitle(), task.getDescription(), task.getPriority(), task.getStatus(),
+                task.getCreatedDate(), task.getDueDate());
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
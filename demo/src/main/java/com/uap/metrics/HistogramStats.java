@@ -0,0 +1,58 @@
+package com.uap.metrics;
+
+import java.beans.ConstructorProperties;
+
+/** Summary of one histogram; exposed over JMX as composite data. */
+public class HistogramStats {
+    private final String unit;
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p99;
+    private final double p999;
+    private final double max;
+
+    @ConstructorProperties({ "unit", "count", "mean", "p50", "p99", "p999", "max" })
+    public HistogramStats(String unit, long count, double mean, double p50, double p99, double p999, double max) {
+        this.unit = unit;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    static HistogramStats of(LatencyHistogram.Snapshot s, String unit, double scale) {
+        return new HistogramStats(unit, s.getCount(), s.getMean() / scale, s.percentile(0.50) / scale,
+                s.percentile(0.99) / scale, s.percentile(0.999) / scale, s.getMax() / scale);
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,116 @@
+package com.uap.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of non-negative longs (nanoseconds for
+ * timers, bytes for sizes), in the style of HdrHistogram: every power of two
+ * is split into 16 linear buckets, so any recorded value is reported within
+ * about 6%.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Records the time elapsed since {@code startNanos}, taken from {@link System#nanoTime()}. */
+    public void stop(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Midpoint of the bucket's value range.
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long low = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return low + (1L << (exponent - SUB_BITS)) / 2;
+    }
+
+    /** Point-in-time copy; counts recorded while it was taken may be partly included. */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(valueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
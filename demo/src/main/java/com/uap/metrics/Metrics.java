@@ -0,0 +1,202 @@
+package com.uap.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of named timers, size histograms, counters and gauges.
+ * Instruments are created on first use and kept for the life of the process;
+ * hot paths should look them up once and keep the reference.
+ *
+ * <p>
+ * Names are dotted, for example {@code data.load} or {@code journal.bytes}.
+ */
+public final class Metrics {
+    public static final String OBJECT_NAME = "com.uap:type=Metrics";
+
+    private static final ConcurrentMap<String, LatencyHistogram> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> SIZES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+    private static final long STARTED = System.nanoTime();
+
+    private static ScheduledExecutorService logger;
+
+    private Metrics() {
+    }
+
+    public static LatencyHistogram timer(String name) {
+        return TIMERS.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    public static LatencyHistogram size(String name) {
+        return SIZES.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /** Replaces any gauge of the same name. */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /** Removes the gauge only if it is still {@code value}, so a newer owner keeps its own. */
+    public static void removeGauge(String name, LongSupplier value) {
+        GAUGES.remove(name, value);
+    }
+
+    public static void reset() {
+        for (LatencyHistogram h : TIMERS.values()) {
+            h.reset();
+        }
+        for (LatencyHistogram h : SIZES.values()) {
+            h.reset();
+        }
+        for (LongAdder c : COUNTERS.values()) {
+            c.reset();
+        }
+    }
+
+    /** Registers the {@link MetricsMXBean} once; later calls do nothing. */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Hands a dump to {@code sink} every {@code periodSeconds} on a daemon
+     * thread. Counters also show their rate over the last period.
+     */
+    public static synchronized void startLogging(long periodSeconds, Consumer<String> sink) {
+        if (logger != null) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-log");
+            t.setDaemon(true);
+            return t;
+        });
+        Map<String, Long> previous = new HashMap<>();
+        long[] previousTime = { System.nanoTime() };
+        logger.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            sink.accept(dump(previous, (now - previousTime[0]) / 1e9));
+            previousTime[0] = now;
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static String dump() {
+        return dump(null, 0);
+    }
+
+    private static String dump(Map<String, Long> previous, double periodSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("metrics (uptime %.0f s)%n", (System.nanoTime() - STARTED) / 1e9));
+        for (Map.Entry<String, Long> gauge : gauges().entrySet()) {
+            sb.append(String.format("  %-28s %d%n", gauge.getKey(), gauge.getValue()));
+        }
+        for (Map.Entry<String, Long> counter : counters().entrySet()) {
+            sb.append(String.format("  %-28s %d", counter.getKey(), counter.getValue()));
+            if (previous != null && periodSeconds > 0) {
+                Long before = previous.put(counter.getKey(), counter.getValue());
+                double delta = counter.getValue() - (before == null ? 0 : before);
+                sb.append(String.format("  (%.1f/s)", delta / periodSeconds));
+            }
+            sb.append(String.format("%n"));
+        }
+        append(sb, timers());
+        append(sb, sizes());
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, Map<String, HistogramStats> histograms) {
+        for (Map.Entry<String, HistogramStats> entry : histograms.entrySet()) {
+            HistogramStats s = entry.getValue();
+            if (s.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format("  %-28s n=%d mean=%.1f p50=%.1f p99=%.1f p999=%.1f max=%.1f %s%n",
+                    entry.getKey(), s.getCount(), s.getMean(), s.getP50(), s.getP99(), s.getP999(), s.getMax(),
+                    s.getUnit()));
+        }
+    }
+
+    static Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    static Map<String, Long> gauges() {
+        Map<String, Long> values = new TreeMap<>();
+        GAUGES.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    static Map<String, HistogramStats> timers() {
+        Map<String, HistogramStats> values = new TreeMap<>();
+        TIMERS.forEach((name, h) -> values.put(name, HistogramStats.of(h.snapshot(), "us", 1e3)));
+        return values;
+    }
+
+    static Map<String, HistogramStats> sizes() {
+        Map<String, HistogramStats> values = new TreeMap<>();
+        SIZES.forEach((name, h) -> values.put(name, HistogramStats.of(h.snapshot(), "bytes", 1)));
+        return values;
+    }
+
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return gauges();
+        }
+
+        @Override
+        public Map<String, HistogramStats> getTimers() {
+            return timers();
+        }
+
+        @Override
+        public Map<String, HistogramStats> getSizes() {
+            return sizes();
+        }
+
+        @Override
+        public String dump() {
+            return Metrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
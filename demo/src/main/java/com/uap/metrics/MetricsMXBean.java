@@ -0,0 +1,22 @@
+package com.uap.metrics;
+
+import java.util.Map;
+
+/** Registered as {@code com.uap:type=Metrics}. */
+public interface MetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    /** Durations in microseconds. */
+    Map<String, HistogramStats> getTimers();
+
+    /** Value distributions such as bytes per write. */
+    Map<String, HistogramStats> getSizes();
+
+    /** The same text as the periodic log dump, without per-interval rates. */
+    String dump();
+
+    /** Clears timers, sizes and counters; gauges are live values and are unaffected. */
+    void reset();
+}
@@ -70,13 +70,19 @@ public class Task {
         this.dueDate = dueDate;
     }
 
+    /** A separate task with the same fields, for handing out without sharing this one. */
+    public Task copy() {
+        return new Task(id, title, description, priority, status, createdDate, dueDate);
+    }
+
+    /** This task as one RFC 4180 record; see {@link TaskCsv}. */
     public String toCSV() {
-        return id + "," + title + "," + description + "," + priority + "," + status + "," + createdDate + "," + dueDate;
+        StringBuilder out = new StringBuilder(96);
+        TaskCsv.append(this, out);
+        return out.toString();
     }
 
     public static Task fromCSV(String line) {
-        String[] parts = line.split(",");
-        return new Task(parts[0], parts[1], parts[2], parts[3], parts[4], LocalDate.parse(parts[5]),
-                LocalDate.parse(parts[6]));
+        return TaskCsv.parse(line);
     }
 }
@@ -0,0 +1,356 @@
+package com.uap.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * RFC 4180 encoding of tasks as {@code id,title,description,priority,status,createdDate,dueDate}.
+ *
+ * <p>
+ * A field holding a comma, a quote or a line break is quoted, with quotes
+ * doubled, so a record may span several lines. {@code null} is written as an
+ * empty field. Dates written as {@code null} by older versions still read as
+ * {@code null}.
+ */
+public final class TaskCsv {
+    public static final int FIELDS = 7;
+
+    private static final String[] PRIORITIES = { "High", "Medium", "Low" };
+    private static final String[] STATUSES = { "Pending", "Completed" };
+
+    private TaskCsv() {
+    }
+
+    /** Appends the task as one record, without a line break. */
+    public static void append(Task task, StringBuilder out) {
+        appendField(task.getId(), out);
+        out.append(',');
+        appendField(task.getTitle(), out);
+        out.append(',');
+        appendField(task.getDescription(), out);
+        out.append(',');
+        appendField(task.getPriority(), out);
+        out.append(',');
+        appendField(task.getStatus(), out);
+        out.append(',');
+        appendDate(task.getCreatedDate(), out);
+        out.append(',');
+        appendDate(task.getDueDate(), out);
+    }
+
+    public static void appendField(String value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        int special = 0;
+        while (special < length) {
+            char ch = value.charAt(special);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') {
+                break;
+            }
+            special++;
+        }
+        if (special == length) {
+            out.append(value);
+            return;
+        }
+
+        out.append('"').append(value, 0, special);
+        for (int i = special; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                out.append('"');
+            }
+            out.append(ch);
+        }
+        out.append('"');
+    }
+
+    private static void appendDate(LocalDate date, StringBuilder out) {
+        if (date == null) {
+            return;
+        }
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            out.append(date);
+            return;
+        }
+        out.append(year).append('-');
+        appendTwoDigits(date.getMonthValue(), out);
+        out.append('-');
+        appendTwoDigits(date.getDayOfMonth(), out);
+    }
+
+    private static void appendTwoDigits(int value, StringBuilder out) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /** One record; anything but {@link #FIELDS} fields or an invalid date is an IllegalArgumentException. */
+    public static Task parse(CharSequence record) {
+        Scanner scanner = new Scanner().reset(record);
+        if (!scanner.next()) {
+            throw new IllegalArgumentException("empty record");
+        }
+        return scanner.task(0);
+    }
+
+    /**
+     * Reads records a field at a time into buffers it keeps, from a
+     * {@link Reader} or from text given to {@link #reset}. Blank lines
+     * between records are skipped.
+     */
+    public static final class Scanner {
+        private final Reader in;
+        private char[] buf;
+        private int pos;
+        private int limit;
+
+        private char[] text = new char[256];
+        private int textLength;
+        private int[] starts = new int[FIELDS + 1];
+        private int[] ends = new int[FIELDS + 1];
+        private int fieldCount;
+        private long line = 1;
+        private long recordLine;
+
+        /** For text handed over with {@link #reset}. */
+        public Scanner() {
+            this.in = null;
+            this.buf = new char[0];
+        }
+
+        public Scanner(Reader in) {
+            this.in = in;
+            this.buf = new char[1 << 16];
+        }
+
+        /** Starts over on {@code record}; only for scanners made without a Reader. */
+        public Scanner reset(CharSequence record) {
+            if (in != null) {
+                throw new IllegalStateException("Scanner reads from a Reader");
+            }
+            int length = record.length();
+            if (buf.length < length) {
+                buf = new char[Math.max(length, buf.length * 2)];
+            }
+            if (record instanceof String) {
+                ((String) record).getChars(0, length, buf, 0);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    buf[i] = record.charAt(i);
+                }
+            }
+            pos = 0;
+            limit = length;
+            line = 1;
+            return this;
+        }
+
+        /**
+         * Reads the next record. Returns {@code false} at the end of the
+         * input. A record cut short by the end of the input keeps what was
+         * read.
+         */
+        public boolean next() {
+            while (true) {
+                if (peek() < 0) {
+                    return false;
+                }
+                readRecord();
+                if (fieldCount > 1 || ends[0] > starts[0]) {
+                    return true;
+                }
+            }
+        }
+
+        private void readRecord() {
+            fieldCount = 0;
+            textLength = 0;
+            recordLine = line;
+            startField();
+            boolean quoted = false;
+            int ch;
+            while ((ch = read()) >= 0) {
+                if (quoted) {
+                    if (ch == '"') {
+                        if (peek() == '"') {
+                            pos++;
+                            put('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        if (ch == '\n') {
+                            line++;
+                        }
+                        put((char) ch);
+                    }
+                } else if (ch == ',') {
+                    endField();
+                    startField();
+                } else if (ch == '\n') {
+                    line++;
+                    break;
+                } else if (ch == '\r' && peek() == '\n') {
+                    continue;
+                } else if (ch == '"' && textLength == starts[fieldCount]) {
+                    quoted = true;
+                } else {
+                    put((char) ch);
+                }
+            }
+            endField();
+        }
+
+        private void startField() {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+            }
+            starts[fieldCount] = textLength;
+        }
+
+        private void endField() {
+            ends[fieldCount++] = textLength;
+        }
+
+        private void put(char ch) {
+            if (textLength == text.length) {
+                text = Arrays.copyOf(text, textLength * 2);
+            }
+            text[textLength++] = ch;
+        }
+
+        private int read() {
+            int ch = peek();
+            if (ch >= 0) {
+                pos++;
+            }
+            return ch;
+        }
+
+        private int peek() {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            return buf[pos];
+        }
+
+        private boolean fill() {
+            if (in == null) {
+                return false;
+            }
+            try {
+                int n = in.read(buf, 0, buf.length);
+                if (n <= 0) {
+                    return false;
+                }
+                pos = 0;
+                limit = n;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public int fieldCount() {
+            return fieldCount;
+        }
+
+        /** The line the current record starts on, counting from 1. */
+        public long line() {
+            return recordLine;
+        }
+
+        public String field(int i) {
+            checkField(i);
+            return new String(text, starts[i], ends[i] - starts[i]);
+        }
+
+        public boolean isEmpty(int i) {
+            checkField(i);
+            return ends[i] == starts[i];
+        }
+
+        /** True if field {@code i} is exactly {@code value}. */
+        public boolean is(int i, String value) {
+            checkField(i);
+            int length = ends[i] - starts[i];
+            if (length != value.length()) {
+                return false;
+            }
+            for (int k = 0; k < length; k++) {
+                if (text[starts[i] + k] != value.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** The matching candidate itself, so common values are shared; otherwise the field's text. */
+        public String known(int i, String... candidates) {
+            for (String candidate : candidates) {
+                if (is(i, candidate)) {
+                    return candidate;
+                }
+            }
+            return field(i);
+        }
+
+        /** {@code null} for an empty field or {@code null}; other text that is not a date is an IllegalArgumentException. */
+        public LocalDate date(int i) {
+            checkField(i);
+            int from = starts[i];
+            int length = ends[i] - from;
+            if (length == 0 || is(i, "null")) {
+                return null;
+            }
+            try {
+                if (length == 10 && text[from + 4] == '-' && text[from + 7] == '-') {
+                    int year = digits(from, 4);
+                    int month = digits(from + 5, 2);
+                    int day = digits(from + 8, 2);
+                    if (year >= 0 && month >= 0 && day >= 0) {
+                        return LocalDate.of(year, month, day);
+                    }
+                }
+                return LocalDate.parse(field(i));
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("invalid date '" + field(i) + "'");
+            }
+        }
+
+        /** The task in fields {@code first} to {@code first + FIELDS - 1}, which must be the last ones. */
+        public Task task(int first) {
+            if (fieldCount != first + FIELDS) {
+                throw new IllegalArgumentException(
+                        "expected " + (first + FIELDS) + " fields, found " + fieldCount);
+            }
+            return new Task(field(first), field(first + 1), field(first + 2), known(first + 3, PRIORITIES),
+                    known(first + 4, STATUSES), date(first + 5), date(first + 6));
+        }
+
+        private int digits(int from, int count) {
+            int value = 0;
+            for (int k = from; k < from + count; k++) {
+                int d = text[k] - '0';
+                if (d < 0 || d > 9) {
+                    return -1;
+                }
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        private void checkField(int i) {
+            if (i < 0 || i >= fieldCount) {
+                throw new IllegalArgumentException("expected at least " + (i + 1) + " fields, found " + fieldCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.uap.tools;
+
+import com.uap.data.BinarySnapshot;
+import com.uap.data.DataManager;
+import com.uap.data.DurabilityPolicy;
+import com.uap.data.TaskStore;
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load driver for DataManager. Generates a data set, replays a mixed
+ * add/update/complete/delete workload at a target rate and prints throughput
+ * and latency percentiles per operation.
+ *
+ * <pre>
+ * java -cp target/classes com.uap.tools.LoadTest --file /tmp/load/tasks.csv --tasks 100000 \
+ *     --ops 200000 --rate 5000 --mix add=20,update=40,complete=25,delete=15 --durability every
+ * </pre>
+ *
+ * With a target rate the schedule is open-loop: latency is measured from the
+ * moment an operation was due, so time spent waiting behind a slow operation
+ * counts as well.
+ */
+public class LoadTest {
+    private static final String[] OPERATIONS = { "add", "update", "complete", "delete" };
+
+    private final Map<String, String> options;
+
+    LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("file", "loadtest/tasks_data.csv");
+        options.put("tasks", "100000");
+        options.put("ops", "100000");
+        options.put("rate", "0");
+        options.put("mix", "add=20,update=40,complete=25,delete=15");
+        options.put("durability", "every");
+        options.put("store", "list");
+        options.put("seed", "1");
+        options.put("fresh", "false");
+        options.put("await", "false");
+
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || !options.containsKey(args[i].substring(2))) {
+                usage(options, "Unknown option: " + args[i]);
+                return;
+            }
+            String key = args[i].substring(2);
+            if (key.equals("fresh") || key.equals("await")) {
+                options.put(key, "true");
+            } else if (i + 1 < args.length) {
+                options.put(key, args[++i]);
+            } else {
+                usage(options, "Missing value for " + args[i]);
+                return;
+            }
+        }
+        new LoadTest(options).run();
+    }
+
+    private static void usage(Map<String, String> defaults, String problem) {
+        System.err.println(problem);
+        System.err.println("Options (defaults):");
+        for (Map.Entry<String, String> option : defaults.entrySet()) {
+            System.err.println("  --" + option.getKey() + " " + option.getValue());
+        }
+        System.err.println("  --durability every | idle | interval:<ms>;  --store list | columnar | offheap");
+        System.err.println("  --fresh regenerates the data set;  --await waits for each commit to be durable");
+        System.exit(2);
+    }
+
+    void run() throws IOException {
+        File file = new File(options.get("file"));
+        int initialTasks = Integer.parseInt(options.get("tasks"));
+        int ops = Integer.parseInt(options.get("ops"));
+        double rate = Double.parseDouble(options.get("rate"));
+        boolean await = Boolean.parseBoolean(options.get("await"));
+        long seed = Long.parseLong(options.get("seed"));
+        int[] weights = parseMix(options.get("mix"));
+
+        TaskGenerator generator = new TaskGenerator(seed);
+        if (Boolean.parseBoolean(options.get("fresh")) || !(file.exists() || BinarySnapshot.fileFor(file).exists())) {
+            prepare(file, initialTasks, generator);
+        }
+
+        long heapBefore = usedHeapAfterGc();
+        long loadStart = System.nanoTime();
+        DataManager dm = new DataManager(file.getPath(), parseDurability(options.get("durability")),
+                TaskStore.create(options.get("store")));
+        long loadNanos = System.nanoTime() - loadStart;
+        long loadHeap = usedHeapAfterGc() - heapBefore;
+
+        Random random = generator.random();
+        Recorder[] recorders = new Recorder[OPERATIONS.length];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder(Math.max(16, ops / 2));
+        }
+
+        long intervalNanos = rate > 0 ? (long) (1e9 / rate) : 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            long due = start + i * intervalNanos;
+            if (intervalNanos > 0) {
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long begin = intervalNanos > 0 ? due : System.nanoTime();
+
+            int op = pick(weights, random);
+            CompletableFuture<Void> commit = apply(dm, OPERATIONS[op], generator, random);
+            if (await) {
+                commit.join();
+            }
+            recorders[op].record(System.nanoTime() - begin);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long closeStart = System.nanoTime();
+        dm.close();
+        long closeNanos = System.nanoTime() - closeStart;
+
+        report(file, dm, loadNanos, loadHeap, elapsed, closeNanos, recorders);
+    }
+
+    // Used heap after full collections, so that it counts only what is still referenced.
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void prepare(File file, int count, TaskGenerator generator) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            Files.createDirectories(dir.toPath());
+        }
+        for (String suffix : new String[] { ".journal", ".journal.compacting", ".seq", ".tmp" }) {
+            Files.deleteIfExists(new File(file.getPath() + suffix).toPath());
+        }
+        Files.deleteIfExists(BinarySnapshot.fileFor(file).toPath());
+
+        long begin = System.nanoTime();
+        generator.writeCsv(file, count);
+        System.out.printf("generated %d tasks in %.0f ms -> %s%n", count, (System.nanoTime() - begin) / 1e6, file);
+    }
+
+    private static CompletableFuture<Void> apply(DataManager dm, String operation, TaskGenerator generator,
+            Random random) {
+        int size = (int) dm.countTasks();
+        if (size == 0 || operation.equals("add")) {
+            return dm.addTask(generator.next(dm.generateUniqueId()));
+        }
+
+        Task task = dm.getTaskAt(random.nextInt(size));
+        switch (operation) {
+            case "update":
+                return dm.updateTask(task.getId(), generator.edit(task));
+            case "complete":
+                // Prefer a pending task, but do not search the whole list for one.
+                for (int tries = 0; tries < 8 && "Completed".equals(task.getStatus()); tries++) {
+                    task = dm.getTaskAt(random.nextInt(size));
+                }
+                return dm.updateTask(task.getId(), new Task(task.getId(), task.getTitle(), task.getDescription(),
+                        task.getPriority(), "Completed", task.getCreatedDate(), task.getDueDate()));
+            default:
+                return dm.deleteTask(task.getId());
+        }
+    }
+
+    private void report(File file, DataManager dm, long loadNanos, long loadHeap, long elapsed, long closeNanos,
+            Recorder[] recorders) {
+        long total = 0;
+        for (Recorder recorder : recorders) {
+            total += recorder.count;
+        }
+        double seconds = elapsed / 1e9;
+
+        System.out.println();
+        System.out.printf("file %s, store %s, durability %s%s%n", file, options.get("store"),
+                options.get("durability"), Boolean.parseBoolean(options.get("await")) ? " (awaited)" : "");
+        System.out.printf("load %.1f ms, run %.2f s, close %.1f ms, final size %d tasks%n", loadNanos / 1e6, seconds,
+                closeNanos / 1e6, dm.countTasks());
+        System.out.printf("heap held after load %.1f MB%n", loadHeap / 1048576.0);
+        System.out.printf("throughput %.0f ops/s (target %s)%n%n", total / seconds,
+                Double.parseDouble(options.get("rate")) > 0 ? options.get("rate") + " ops/s" : "unlimited");
+
+        System.out.printf("%-9s %9s %10s %10s %10s %10s %10s%n", "op", "count", "ops/s", "p50 us", "p99 us",
+                "p999 us", "max us");
+        for (int i = 0; i < recorders.length; i++) {
+            Recorder r = recorders[i];
+            if (r.count == 0) {
+                continue;
+            }
+            r.sort();
+            System.out.printf("%-9s %9d %10.0f %10.1f %10.1f %10.1f %10.1f%n", OPERATIONS[i], r.count,
+                    r.count / seconds, r.percentile(0.50) / 1e3, r.percentile(0.99) / 1e3,
+                    r.percentile(0.999) / 1e3, r.percentile(1.0) / 1e3);
+        }
+        System.out.println();
+        System.out.print(Metrics.dump());
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPERATIONS.length];
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            int op = Arrays.asList(OPERATIONS).indexOf(kv[0].trim());
+            if (op < 0 || kv.length != 2) {
+                throw new IllegalArgumentException("Bad --mix entry: " + part);
+            }
+            weights[op] = Integer.parseInt(kv[1].trim());
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        if (weights[weights.length - 1] <= 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    private static int pick(int[] cumulativeWeights, Random random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int op = 0;
+        while (r >= cumulativeWeights[op]) {
+            op++;
+        }
+        return op;
+    }
+
+    static DurabilityPolicy parseDurability(String value) {
+        if (value.equals("every")) {
+            return DurabilityPolicy.everyCommit();
+        }
+        if (value.equals("idle")) {
+            return DurabilityPolicy.onIdle();
+        }
+        if (value.startsWith("interval:")) {
+            return DurabilityPolicy.interval(Long.parseLong(value.substring("interval:".length())));
+        }
+        throw new IllegalArgumentException("Bad --durability: " + value);
+    }
+
+    /** All latency samples of one operation, sorted once for the report. */
+    private static final class Recorder {
+        private long[] samples;
+        private int count;
+
+        Recorder(int capacity) {
+            samples = new long[capacity];
+        }
+
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        void sort() {
+            Arrays.sort(samples, 0, count);
+        }
+
+        long percentile(double p) {
+            int index = (int) Math.ceil(p * count) - 1;
+            return samples[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.uap.tools;
+
+import com.uap.model.Task;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic tasks with roughly the shape of real data:
+ * <ul>
+ * <li>short verb + object titles, descriptions that are often empty</li>
+ * <li>priority about 20% High, 50% Medium, 30% Low</li>
+ * <li>creation dates skewed towards the last few weeks</li>
+ * <li>due dates mostly within two weeks of creation, with a long tail</li>
+ * <li>older tasks more likely to be completed</li>
+ * </ul>
+ * Text never contains commas, so every task survives the CSV format.
+ */
+public class TaskGenerator {
+    private static final String[] VERBS = { "Kerjakan", "Review", "Siapkan", "Kirim", "Perbaiki", "Tulis",
+            "Rapikan", "Cek", "Update", "Diskusikan", "Presentasikan", "Bayar", "Beli", "Jadwalkan", "Uji" };
+    private static final String[] OBJECTS = { "laporan", "tugas", "modul", "slide", "email", "kode", "dokumen",
+            "proposal", "bug", "desain", "jadwal", "tagihan", "kuis", "server", "database", "anggaran", "catatan" };
+    private static final String[] QUALIFIERS = { "mingguan", "bulanan", "akhir", "kelompok", "praktikum", "UAP",
+            "klien", "tim", "v2", "final", "revisi", "darurat", "semester", "proyek", "backend", "frontend" };
+    private static final String[] FILLER = { "pastikan", "sebelum", "rapat", "dengan", "dosen", "semua", "bagian",
+            "sudah", "lengkap", "dan", "cek", "ulang", "hasil", "catat", "kendala", "kirim", "ke", "grup",
+            "lampirkan", "file", "terbaru", "minta", "feedback", "dari", "asisten" };
+
+    private final Random random;
+    private final LocalDate today;
+
+    public TaskGenerator(long seed) {
+        this(seed, LocalDate.of(2025, 12, 24));
+    }
+
+    public TaskGenerator(long seed, LocalDate today) {
+        this.random = new Random(seed);
+        this.today = today;
+    }
+
+    public Random random() {
+        return random;
+    }
+
+    public Task next(String id) {
+        LocalDate created = today.minusDays(Math.min(730, (long) (-30 * Math.log(1 - random.nextDouble()))));
+        LocalDate due = created.plusDays(dueOffset());
+        long age = today.toEpochDay() - created.toEpochDay();
+        boolean completed = random.nextDouble() < Math.min(0.9, 0.15 + age / 60.0);
+        return new Task(id, title(), description(), priority(), completed ? "Completed" : "Pending", created, due);
+    }
+
+    public List<Task> generate(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            tasks.add(next(String.valueOf(i)));
+        }
+        return tasks;
+    }
+
+    /** Streams {@code count} tasks with IDs 1..count to {@code file} as CSV. */
+    public void writeCsv(File file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 1; i <= count; i++) {
+                writer.write(next(String.valueOf(i)).toCSV());
+                writer.newLine();
+            }
+        }
+    }
+
+    /** A copy of {@code task} with a new title, description, priority or due date. */
+    public Task edit(Task task) {
+        String title = task.getTitle();
+        String description = task.getDescription();
+        String priority = task.getPriority();
+        LocalDate due = task.getDueDate();
+        switch (random.nextInt(4)) {
+            case 0:
+                title = title();
+                break;
+            case 1:
+                description = description();
+                break;
+            case 2:
+                priority = priority();
+                break;
+            default:
+                due = (due == null ? today : due).plusDays(1 + random.nextInt(14));
+                break;
+        }
+        return new Task(task.getId(), title, description, priority, task.getStatus(), task.getCreatedDate(), due);
+    }
+
+    public String title() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(pick(VERBS)).append(' ').append(pick(OBJECTS));
+        if (random.nextInt(3) > 0) {
+            sb.append(' ').append(pick(QUALIFIERS));
+        }
+        if (random.nextInt(5) == 0) {
+            sb.append(' ').append(1 + random.nextInt(20));
+        }
+        return sb.toString();
+    }
+
+    public String description() {
+        if (random.nextInt(10) < 3) {
+            return "";
+        }
+        int words = 3 + (int) Math.min(40, -8 * Math.log(1 - random.nextDouble()));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(random.nextInt(6) == 0 ? pick(OBJECTS) : pick(FILLER));
+        }
+        return sb.toString();
+    }
+
+    public String priority() {
+        int p = random.nextInt(10);
+        return p < 2 ? "High" : p < 7 ? "Medium" : "Low";
+    }
+
+    // Most tasks are due within two weeks; a few weeks to months out is the tail.
+    private long dueOffset() {
+        double r = random.nextDouble();
+        if (r < 0.7) {
+            return random.nextInt(15);
+        }
+        if (r < 0.95) {
+            return 14 + random.nextInt(31);
+        }
+        return 45 + random.nextInt(136);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,229 @@
+package com.uap.ui;
+
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Watches the event dispatch thread.
+ * <ul>
+ * <li>Every dispatched event is timed into {@code edt.dispatch}.</li>
+ * <li>A probe posted every {@link #PROBE_INTERVAL_MS} ms measures how long
+ * events wait in the queue ({@code edt.latency}).</li>
+ * <li>When one event has been running longer than the threshold, a
+ * background thread captures the EDT stack into a rolling log file. It
+ * captures again each time the stall doubles.</li>
+ * </ul>
+ * Stalls are counted in {@code edt.stalls} and per application class in
+ * {@code edt.stalls.<Class>}, taken from the first {@code com.uap} frame
+ * of the stack. Only the first {@link #MAX_CULPRITS} classes get a counter
+ * of their own, the rest count in {@code edt.stalls.other}; the log names
+ * the class either way.
+ *
+ * <p>
+ * Time the EDT spends pumping a nested loop (a modal dialog) does not count
+ * against the event that opened it.
+ */
+public final class EdtWatchdog extends EventQueue {
+    public static final long PROBE_INTERVAL_MS = 250;
+    /** Metrics counters live as long as the process, so there is one per class only up to this many. */
+    public static final int MAX_CULPRITS = 32;
+
+    private static final LatencyHistogram DISPATCH_TIME = Metrics.timer("edt.dispatch");
+    private static final LatencyHistogram QUEUE_LATENCY = Metrics.timer("edt.latency");
+    private static final LatencyHistogram STALL_TIME = Metrics.timer("edt.stall");
+    private static final long MAX_LOG_BYTES = 1 << 20;
+    private static final int KEPT_LOGS = 3;
+
+    private static EdtWatchdog installed;
+
+    private final long thresholdNanos;
+    private final File logFile;
+
+    // Written by the EDT, read by the watchdog thread.
+    private volatile Thread edt;
+    private volatile long runningSince;
+    private volatile AWTEvent runningEvent;
+    private volatile long dispatchId;
+
+    // Watchdog thread only: classes that have a counter of their own.
+    private final Set<String> countedCulprits = new HashSet<>();
+
+    // EDT only: start and child time of every dispatch in progress, innermost last.
+    private final Deque<long[]> frames = new ArrayDeque<>();
+
+    private EdtWatchdog(long thresholdMs, File logFile) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.logFile = logFile;
+    }
+
+    /**
+     * Replaces the system event queue and starts the watchdog thread. Later
+     * calls do nothing.
+     */
+    public static synchronized void install(long thresholdMs, File logFile) {
+        if (installed != null) {
+            return;
+        }
+        installed = new EdtWatchdog(thresholdMs, logFile);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed);
+
+        Thread watcher = new Thread(installed::watch, "edt-watchdog");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        long[] frame = { start, 0 };
+        frames.addLast(frame);
+        edt = Thread.currentThread();
+        runningEvent = event;
+        dispatchId++;
+        runningSince = start;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            frames.removeLast();
+            long own = end - frame[0] - frame[1];
+            DISPATCH_TIME.record(own);
+            if (own >= thresholdNanos) {
+                STALL_TIME.record(own);
+            }
+
+            long[] parent = frames.peekLast();
+            if (parent != null) {
+                parent[1] += end - start;
+                // The outer event resumes now; the nested loop's time is not its own.
+                dispatchId++;
+                runningSince = end;
+            } else {
+                runningSince = 0;
+                runningEvent = null;
+            }
+        }
+    }
+
+    private void watch() {
+        long pollNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), thresholdNanos / 4);
+        long lastProbe = 0;
+        long reportedId = -1;
+        long nextReportNanos = thresholdNanos;
+        while (true) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(pollNanos);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            if (now - lastProbe >= TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MS)) {
+                lastProbe = now;
+                SwingUtilities.invokeLater(() -> QUEUE_LATENCY.stop(now));
+            }
+
+            long id = dispatchId;
+            long since = runningSince;
+            if (since == 0) {
+                continue;
+            }
+            if (id != reportedId) {
+                reportedId = id;
+                nextReportNanos = thresholdNanos;
+            }
+            long blocked = now - since;
+            if (blocked >= nextReportNanos && id == dispatchId) {
+                report(blocked, nextReportNanos == thresholdNanos);
+                nextReportNanos *= 2;
+            }
+        }
+    }
+
+    private void report(long blockedNanos, boolean firstForEvent) {
+        Thread thread = edt;
+        AWTEvent event = runningEvent;
+        if (thread == null) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        String culprit = culprit(stack);
+        if (firstForEvent) {
+            Metrics.counter("edt.stalls").increment();
+            if (countedCulprits.contains(culprit) || countedCulprits.size() < MAX_CULPRITS) {
+                countedCulprits.add(culprit);
+                Metrics.counter("edt.stalls." + culprit).increment();
+            } else {
+                Metrics.counter("edt.stalls.other").increment();
+            }
+        }
+
+        try {
+            rollIfNeeded();
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(logFile, true),
+                    StandardCharsets.UTF_8))) {
+                out.printf("%s EDT blocked for %d ms%s%n", LocalDateTime.now(),
+                        TimeUnit.NANOSECONDS.toMillis(blockedNanos), firstForEvent ? "" : " (still)");
+                out.printf("  event: %s%n", event == null ? "?" : describe(event));
+                out.printf("  culprit: %s%n", culprit);
+                for (StackTraceElement frame : stack) {
+                    out.printf("    at %s%n", frame);
+                }
+                out.println();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String culprit(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String cls = frame.getClassName();
+            if (cls.startsWith("com.uap.") && !cls.equals(EdtWatchdog.class.getName())) {
+                String simple = cls.substring(cls.lastIndexOf('.') + 1);
+                int inner = simple.indexOf('$');
+                return inner > 0 ? simple.substring(0, inner) : simple;
+            }
+        }
+        return "other";
+    }
+
+    private static String describe(AWTEvent event) {
+        String text = event.toString();
+        return text.length() > 300 ? text.substring(0, 300) + "..." : text;
+    }
+
+    // edt-stalls.log -> .1 -> .2 ...; the oldest is dropped.
+    private void rollIfNeeded() throws IOException {
+        if (logFile.length() < MAX_LOG_BYTES) {
+            return;
+        }
+        for (int i = KEPT_LOGS - 1; i >= 1; i--) {
+            File from = i == 1 ? logFile : new File(logFile.getPath() + "." + (i - 1));
+            File to = new File(logFile.getPath() + "." + i);
+            if (from.exists()) {
+                Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
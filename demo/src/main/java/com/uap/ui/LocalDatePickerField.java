@@ -3,17 +3,22 @@ package com.uap.ui;
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Calendar;
+import java.util.function.Function;
 
 public class LocalDatePickerField extends JPanel {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int GRID_CELLS = 42;
+    private static final Color TODAY_COLOR = new Color(230, 240, 255);
 
     private final JTextField textField;
     private final JButton pickerButton;
 
     private LocalDate date;
+    private Function<YearMonth, int[]> dueCounts;
 
     public LocalDatePickerField() {
         this("");
@@ -65,6 +70,14 @@ public class LocalDatePickerField extends JPanel {
         setDate(null);
     }
 
+    /**
+     * Supplies the number of tasks already due on each day of a month; the
+     * calendar shades busier days darker.
+     */
+    public void setDueCounts(Function<YearMonth, int[]> dueCounts) {
+        this.dueCounts = dueCounts;
+    }
+
     public JTextField getTextField() {
         return textField;
     }
@@ -88,6 +101,20 @@ public class LocalDatePickerField extends JPanel {
         }
     }
 
+    private static Color heat(int count, int busiest, boolean today) {
+        if (count == 0) {
+            return today ? TODAY_COLOR : Color.WHITE;
+        }
+        // Any workload gets a visible tint; the busiest day of the month gets the full colour.
+        float share = 0.25f + 0.75f * count / busiest;
+        Color hot = UIColors.ACCENT_ORANGE;
+        return new Color(blend(hot.getRed(), share), blend(hot.getGreen(), share), blend(hot.getBlue(), share));
+    }
+
+    private static int blend(int channel, float share) {
+        return Math.round(255 + (channel - 255) * share);
+    }
+
     private void openPickerDialog() {
         Window owner = SwingUtilities.getWindowAncestor(this);
         JDialog dialog = owner instanceof Frame
@@ -133,58 +160,64 @@ public class LocalDatePickerField extends JPanel {
         monthPanel.add(monthLabel);
         monthPanel.add(nextButton);
 
-        Runnable render = () -> {
-            calendarPanel.removeAll();
+        String[] days = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+        for (String day : days) {
+            JLabel label = new JLabel(day, SwingConstants.CENTER);
+            label.setFont(new Font("Segoe UI", Font.BOLD, 12));
+            label.setForeground(UIColors.BTN_BLUE);
+            calendarPanel.add(label);
+        }
 
-            String[] months = { "January", "February", "March", "April", "May", "June",
-                    "July", "August", "September", "October", "November", "December" };
-            monthLabel.setText(months[viewCal.get(Calendar.MONTH)] + " " + viewCal.get(Calendar.YEAR));
+        // Six weeks of cells, created once and relabelled for every month shown.
+        LocalDate[] cellDates = new LocalDate[GRID_CELLS];
+        JButton[] cells = new JButton[GRID_CELLS];
+        for (int i = 0; i < GRID_CELLS; i++) {
+            int cell = i;
+            JButton dayButton = new JButton();
+            dayButton.setFocusPainted(false);
+            dayButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            dayButton.addActionListener(e -> {
+                setDate(cellDates[cell]);
+                dialog.dispose();
+            });
+            cells[i] = dayButton;
+            calendarPanel.add(dayButton);
+        }
 
-            String[] days = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
-            for (String day : days) {
-                JLabel label = new JLabel(day, SwingConstants.CENTER);
-                label.setFont(new Font("Segoe UI", Font.BOLD, 12));
-                label.setForeground(UIColors.BTN_BLUE);
-                calendarPanel.add(label);
-            }
+        String[] months = { "January", "February", "March", "April", "May", "June",
+                "July", "August", "September", "October", "November", "December" };
 
-            Calendar temp = (Calendar) viewCal.clone();
-            temp.set(Calendar.DAY_OF_MONTH, 1);
-            int firstDayOfWeek = temp.get(Calendar.DAY_OF_WEEK);
-            int daysInMonth = temp.getActualMaximum(Calendar.DAY_OF_MONTH);
+        Runnable render = () -> {
+            monthLabel.setText(months[viewCal.get(Calendar.MONTH)] + " " + viewCal.get(Calendar.YEAR));
 
-            for (int i = 1; i < firstDayOfWeek; i++) {
-                calendarPanel.add(new JLabel(""));
+            YearMonth month = YearMonth.of(viewCal.get(Calendar.YEAR), viewCal.get(Calendar.MONTH) + 1);
+            int[] counts = dueCounts == null ? new int[month.lengthOfMonth()] : dueCounts.apply(month);
+            int busiest = 0;
+            for (int count : counts) {
+                busiest = Math.max(busiest, count);
             }
 
+            // Sunday-first grid, as the header row.
+            int offset = month.atDay(1).getDayOfWeek().getValue() % 7;
             LocalDate today = LocalDate.now();
-            int year = viewCal.get(Calendar.YEAR);
-            int month = viewCal.get(Calendar.MONTH) + 1;
-
-            for (int day = 1; day <= daysInMonth; day++) {
-                final int d = day;
-                JButton dayButton = new JButton(String.valueOf(day));
-                dayButton.setFocusPainted(false);
-                dayButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-
-                LocalDate buttonDate = LocalDate.of(year, month, d);
-                if (buttonDate.equals(today)) {
-                    dayButton.setBackground(new Color(230, 240, 255));
-                    dayButton.setForeground(UIColors.BTN_BLUE);
-                } else {
-                    dayButton.setBackground(Color.WHITE);
+            for (int i = 0; i < GRID_CELLS; i++) {
+                JButton dayButton = cells[i];
+                int day = i - offset + 1;
+                if (day < 1 || day > month.lengthOfMonth()) {
+                    cellDates[i] = null;
+                    dayButton.setVisible(false);
+                    continue;
                 }
 
-                dayButton.addActionListener(e -> {
-                    setDate(LocalDate.of(year, month, d));
-                    dialog.dispose();
-                });
-
-                calendarPanel.add(dayButton);
+                LocalDate buttonDate = month.atDay(day);
+                int count = counts[day - 1];
+                cellDates[i] = buttonDate;
+                dayButton.setText(String.valueOf(day));
+                dayButton.setBackground(heat(count, busiest, buttonDate.equals(today)));
+                dayButton.setForeground(buttonDate.equals(today) ? UIColors.BTN_BLUE : Color.BLACK);
+                dayButton.setToolTipText(count == 0 ? null : count + (count == 1 ? " task due" : " tasks due"));
+                dayButton.setVisible(true);
             }
-
-            calendarPanel.revalidate();
-            calendarPanel.repaint();
         };
 
         prevButton.addActionListener(e -> {
@@ -0,0 +1,81 @@
+package com.uap.ui;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Works out what the task table shows off the event dispatch thread.
+ * Keystrokes are coalesced by a debounce timer, a newer request cancels the
+ * one in flight and only the result of the latest request is handed back on
+ * the EDT.
+ *
+ * @param <Q> the request, read from the controls on the EDT
+ * @param <R> the result handed back
+ */
+public class TaskFilterPipeline<Q, R> {
+    private final Function<Q, R> compute;
+    private final Consumer<R> publish;
+    private final Timer debounce;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "task-filter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Q pendingRequest;
+    private long generation;
+    private Future<?> inFlight;
+
+    /**
+     * @param compute runs on a worker thread; may throw
+     *                {@link CancellationException} once interrupted
+     * @param publish receives the result of the latest request on the EDT
+     */
+    public TaskFilterPipeline(Function<Q, R> compute, Consumer<R> publish, int delayMs) {
+        this.compute = compute;
+        this.publish = publish;
+        this.debounce = new Timer(delayMs, e -> runNow(pendingRequest));
+        this.debounce.setRepeats(false);
+    }
+
+    public void request(Q request) {
+        pendingRequest = request;
+        debounce.restart();
+    }
+
+    public void runNow(Q request) {
+        debounce.stop();
+        long current = ++generation;
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+
+        inFlight = worker.submit(() -> {
+            R result;
+            try {
+                result = compute.apply(request);
+            } catch (CancellationException stale) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (current == generation) {
+                    inFlight = null;
+                    publish.accept(result);
+                }
+            });
+        });
+    }
+
+    public void shutdown() {
+        debounce.stop();
+        worker.shutdownNow();
+    }
+}
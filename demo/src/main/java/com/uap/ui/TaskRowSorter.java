@@ -0,0 +1,408 @@
+package com.uap.ui;
+
+import com.uap.data.TaskSnapshot;
+import com.uap.model.Task;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+/**
+ * Row sorter for the task table whose filter and order are worked out off
+ * the EDT. A worker builds a {@link View} from a {@link TaskSnapshot} with
+ * {@link #compute}, and {@link #apply} installs it in one step.
+ *
+ * <p>
+ * Model changes that arrive in between are folded in on the EDT a row at a
+ * time: a changed row is checked against the filter of the current view and
+ * put at its sorted place by a binary search. Changes too large for that
+ * leave the rows where they are and ask for a new view through
+ * {@code onStale}, as do new sort keys.
+ */
+public class TaskRowSorter extends RowSorter<TaskTableModel> {
+    private static final int MAX_SORT_KEYS = 3;
+    // Each placed row costs a binary search over the view, reading cells through the model.
+    private static final int MAX_PLACED_ROWS = 1000;
+
+    /** The rows to show, in view order, as of one data version. */
+    public static final class View {
+        private final long version;
+        private final int[] rows;
+        private final Set<String> ids;
+        private final String status;
+
+        private View(long version, int[] rows, Set<String> ids, String status) {
+            this.version = version;
+            this.rows = rows;
+            this.ids = ids;
+            this.status = status;
+        }
+
+        /** The {@link TaskSnapshot#getVersion() version} the rows belong to. */
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return rows.length;
+        }
+    }
+
+    private interface Keys {
+        Object key(int row, int sortKey);
+    }
+
+    private final TaskTableModel model;
+    private final Runnable onStale;
+    private final Collator collator = Collator.getInstance();
+
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private Set<String> ids;
+    private String status;
+    private int[] viewToModel;
+    private int[] modelToView;
+
+    public TaskRowSorter(TaskTableModel model, Runnable onStale) {
+        this.model = model;
+        this.onStale = onStale;
+        int count = model.getRowCount();
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = i;
+        }
+        setRows(rows, count);
+    }
+
+    /**
+     * The rows of {@code snapshot} whose ID is in {@code ids} (any ID if
+     * null) and whose status is {@code status} (any if null), sorted by
+     * {@code sortKeys} and then by row. Runs on any thread; throws
+     * {@link CancellationException} once the thread is interrupted.
+     */
+    public static View compute(TaskSnapshot snapshot, Set<String> ids, String status,
+            List<? extends SortKey> sortKeys) {
+        int size = snapshot.size();
+        Object[][] keys = new Object[sortKeys.size()][size];
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if ((row & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("view superseded");
+            }
+            Task task = snapshot.get(row);
+            if (!includes(ids, status, task.getId(), task.getStatus())) {
+                continue;
+            }
+            rows[count++] = row;
+            for (int k = 0; k < keys.length; k++) {
+                int column = sortKeys.get(k).getColumn();
+                keys[k][row] = key(column, TaskTableModel.valueOf(task, column));
+            }
+        }
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = rows[i];
+        }
+        Arrays.sort(order, order(sortKeys, Collator.getInstance(), (row, k) -> keys[k][row]));
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = order[i];
+        }
+        return new View(snapshot.getVersion(), sorted, ids, status);
+    }
+
+    /** Shows {@code view}; only for a view of the data as the model has it now. */
+    public void apply(View view) {
+        ids = view.ids;
+        status = view.status;
+        int[] previous = viewToModel;
+        setRows(view.rows, model.getRowCount());
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public TaskTableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        int at = -1;
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i).getColumn() == column) {
+                at = i;
+                break;
+            }
+        }
+        if (at == 0) {
+            SortOrder order = keys.get(0).getSortOrder() == SortOrder.ASCENDING ? SortOrder.DESCENDING
+                    : SortOrder.ASCENDING;
+            keys.set(0, new SortKey(column, order));
+        } else {
+            if (at > 0) {
+                keys.remove(at);
+            }
+            keys.add(0, new SortKey(column, SortOrder.ASCENDING));
+        }
+        setSortKeys(keys.size() > MAX_SORT_KEYS ? keys.subList(0, MAX_SORT_KEYS) : keys);
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> copy = keys == null ? Collections.<SortKey>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(keys));
+        if (!copy.equals(sortKeys)) {
+            sortKeys = copy;
+            fireSortOrderChanged();
+            onStale.run();
+        }
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= viewToModel.length) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= modelToView.length) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        keepUntilNextView(modelToView.length, 0, 0);
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        int count = endRow - firstRow + 1;
+        if (count > MAX_PLACED_ROWS) {
+            keepUntilNextView(firstRow, count, count);
+            return;
+        }
+        int[] previous = viewToModel;
+        int[] rows = previous.clone();
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] >= firstRow) {
+                rows[i] += count;
+            }
+        }
+        place(previous, rows, firstRow, endRow);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        int count = endRow - firstRow + 1;
+        int[] previous = viewToModel;
+        int[] rows = new int[previous.length];
+        int n = 0;
+        for (int row : previous) {
+            if (row < firstRow) {
+                rows[n++] = row;
+            } else if (row > endRow) {
+                rows[n++] = row - count;
+            }
+        }
+        setRows(Arrays.copyOf(rows, n), model.getRowCount());
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (endRow - firstRow + 1 > MAX_PLACED_ROWS) {
+            keepUntilNextView(modelToView.length, 0, 0);
+            return;
+        }
+        int[] previous = viewToModel;
+        int[] rows = new int[previous.length];
+        int n = 0;
+        for (int row : previous) {
+            if (row < firstRow || row > endRow) {
+                rows[n++] = row;
+            }
+        }
+        place(previous, Arrays.copyOf(rows, n), firstRow, endRow);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    // Merges the rows firstRow..endRow that pass the filter into the sorted rows.
+    private void place(int[] previous, int[] rows, int firstRow, int endRow) {
+        Comparator<Integer> order = order(sortKeys, collator, (row, k) -> {
+            int column = sortKeys.get(k).getColumn();
+            return key(column, model.getValueAt(row, column));
+        });
+        List<Integer> added = new ArrayList<>();
+        for (int row = firstRow; row <= endRow; row++) {
+            if (includes(row)) {
+                added.add(row);
+            }
+        }
+        added.sort(order);
+
+        int[] merged = new int[rows.length + added.size()];
+        int from = 0;
+        int out = 0;
+        for (int row : added) {
+            int low = from;
+            int high = rows.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(rows[mid], row) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            System.arraycopy(rows, from, merged, out, low - from);
+            out += low - from;
+            from = low;
+            merged[out++] = row;
+        }
+        System.arraycopy(rows, from, merged, out, rows.length - from);
+        setRows(merged, model.getRowCount());
+        fireRowSorterChanged(previous);
+    }
+
+    /**
+     * Keeps the rows where they are until the next view: rows from
+     * {@code firstNew} on, {@code count} of them, are new and go last if they
+     * pass the filter; rows after them moved up by {@code shift}.
+     */
+    private void keepUntilNextView(int firstNew, int count, int shift) {
+        int modelCount = model.getRowCount();
+        int lastNew = count > 0 ? firstNew + count - 1 : modelCount - 1;
+        int[] previous = viewToModel;
+        int[] rows = new int[modelCount];
+        int n = 0;
+        for (int row : previous) {
+            int moved = row >= firstNew ? row + shift : row;
+            if (moved < modelCount) {
+                rows[n++] = moved;
+            }
+        }
+        for (int row = firstNew; row <= lastNew; row++) {
+            if (includes(row)) {
+                rows[n++] = row;
+            }
+        }
+        setRows(Arrays.copyOf(rows, n), modelCount);
+        fireRowSorterChanged(previous);
+        onStale.run();
+    }
+
+    private boolean includes(int row) {
+        return includes(ids, status, (String) model.getValueAt(row, TaskTableModel.COL_ID),
+                (String) model.getValueAt(row, TaskTableModel.COL_STATUS));
+    }
+
+    private static boolean includes(Set<String> ids, String status, String id, String rowStatus) {
+        return (ids == null || ids.contains(id)) && (status == null || status.equals(rowStatus));
+    }
+
+    private void setRows(int[] rows, int modelCount) {
+        viewToModel = rows;
+        modelToView = new int[modelCount];
+        Arrays.fill(modelToView, -1);
+        for (int i = 0; i < rows.length; i++) {
+            modelToView[rows[i]] = i;
+        }
+    }
+
+    // Sort keys first, then model order, as DefaultRowSorter does.
+    private static Comparator<Integer> order(List<? extends SortKey> sortKeys, Collator collator, Keys keys) {
+        return (a, b) -> {
+            for (int k = 0; k < sortKeys.size(); k++) {
+                SortOrder sortOrder = sortKeys.get(k).getSortOrder();
+                if (sortOrder == SortOrder.UNSORTED) {
+                    continue;
+                }
+                int result = compare(keys.key(a, k), keys.key(b, k), collator);
+                if (result != 0) {
+                    return sortOrder == SortOrder.DESCENDING ? -result : result;
+                }
+            }
+            return Integer.compare(a, b);
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compare(Object a, Object b, Collator collator) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof String) {
+            return collator.compare(a, b);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static Object key(int column, Object value) {
+        return column == TaskTableModel.COL_ID && value != null ? new IdKey(value.toString()) : value;
+    }
+
+    /** Orders IDs as {@link TaskTableModel#ID_ORDER} does, with the number parsed once. */
+    private static final class IdKey implements Comparable<IdKey> {
+        private final String text;
+        private final boolean numeric;
+        private final long value;
+
+        IdKey(String text) {
+            this.text = text;
+            long parsed = 0;
+            boolean ok;
+            try {
+                parsed = Long.parseLong(text);
+                ok = true;
+            } catch (NumberFormatException e) {
+                ok = false;
+            }
+            this.numeric = ok;
+            this.value = parsed;
+        }
+
+        @Override
+        public int compareTo(IdKey other) {
+            return numeric && other.numeric ? Long.compare(value, other.value) : text.compareTo(other.text);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.uap.ui;
+
+import com.uap.data.DataManager;
+import com.uap.data.TaskChangeBatch;
+import com.uap.data.TaskChangeEvent;
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.swing.table.AbstractTableModel;
+
+public class TaskTableModel extends AbstractTableModel {
+    public static final int COL_ID = 0;
+    public static final int COL_STATUS = 4;
+
+    public static final Comparator<Object> ID_ORDER = (a, b) -> {
+        String left = String.valueOf(a);
+        String right = String.valueOf(b);
+        try {
+            return Long.compare(Long.parseLong(left), Long.parseLong(right));
+        } catch (NumberFormatException e) {
+            return left.compareTo(right);
+        }
+    };
+
+    private static final String[] COLUMNS = { "ID", "Title", "Description", "Priority", "Status", "Created",
+            "Due Date" };
+
+    private static final int CACHE_SIZE = 128;
+    private static final LatencyHistogram UPDATE_TIME = Metrics.timer("ui.table.update");
+
+    private final DataManager dataManager;
+
+    // Rows decoded for painting; JTable asks for every column of a visible row in turn.
+    private final int[] cachedRows = new int[CACHE_SIZE];
+    private final Task[] cachedTasks = new Task[CACHE_SIZE];
+
+    public TaskTableModel(DataManager dataManager) {
+        this.dataManager = dataManager;
+        Arrays.fill(cachedRows, -1);
+    }
+
+    public Task getTaskAt(int row) {
+        int slot = row & (CACHE_SIZE - 1);
+        if (cachedRows[slot] != row) {
+            cachedTasks[slot] = dataManager.getTaskAt(row);
+            cachedRows[slot] = row;
+        }
+        return cachedTasks[slot];
+    }
+
+    public void tasksChanged(TaskChangeBatch batch) {
+        long start = System.nanoTime();
+        Arrays.fill(cachedRows, -1);
+        Arrays.fill(cachedTasks, null);
+        List<TaskChangeEvent> events = batch.getEvents();
+        if (batch.isSingle()) {
+            fireRowEvents(events.get(0));
+        } else if (onlyAdds(events)) {
+            // Appended rows: a sorter merges a small batch into its order instead of re-sorting every row.
+            fireTableRowsInserted(events.get(0).getIndex(), events.get(events.size() - 1).getIndex());
+        } else {
+            fireTableDataChanged();
+        }
+        UPDATE_TIME.stop(start);
+    }
+
+    private static boolean onlyAdds(List<TaskChangeEvent> events) {
+        for (TaskChangeEvent event : events) {
+            if (event.getType() != TaskChangeEvent.Type.ADDED) {
+                return false;
+            }
+        }
+        return !events.isEmpty();
+    }
+
+    private void fireRowEvents(TaskChangeEvent event) {
+
+        int row = event.getIndex();
+        switch (event.getType()) {
+            case ADDED:
+                fireTableRowsInserted(row, row);
+                break;
+            case UPDATED:
+                fireTableRowsUpdated(row, row);
+                break;
+            default:
+                // DataManager swap-removes: the last row is gone and, unless it
+                // was the deleted one, now lives in the freed row.
+                int last = getRowCount();
+                fireTableRowsDeleted(last, last);
+                if (row < last) {
+                    fireTableRowsUpdated(row, row);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return (int) dataManager.countTasks();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 5 || column == 6 ? LocalDate.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        // Sorting and filtering read these columns for every row; they skip the full decode.
+        if (column == COL_ID) {
+            return dataManager.getIdAt(row);
+        }
+        if (column == COL_STATUS) {
+            return dataManager.getStatusAt(row);
+        }
+
+        return valueOf(getTaskAt(row), column);
+    }
+
+    /** The cell {@code column} shows for {@code t}. */
+    public static Object valueOf(Task t, int column) {
+        switch (column) {
+            case COL_ID:
+                return t.getId();
+            case 1:
+                return t.getTitle();
+            case 2:
+                return t.getDescription();
+            case 3:
+                return t.getPriority();
+            case COL_STATUS:
+                return t.getStatus();
+            case 5:
+                return t.getCreatedDate();
+            default:
+                return t.getDueDate();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.uap.ui;
+
+import com.uap.data.TaskTransfer;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+
+import javax.swing.BorderFactory;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+
+/** Shows how far an import or export has got; updates may come from any thread. */
+public class TransferProgressDialog extends JDialog {
+    private final JProgressBar bar = new JProgressBar(0, 1000);
+    private final JLabel status = new JLabel("Starting...");
+
+    public TransferProgressDialog(Component parent, String title) {
+        super(SwingUtilities.getWindowAncestor(parent), title, ModalityType.MODELESS);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        bar.setStringPainted(true);
+        status.setBorder(BorderFactory.createEmptyBorder(8, 0, 0, 0));
+
+        JPanel holder = new JPanel(new BorderLayout());
+        holder.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        holder.add(bar, BorderLayout.NORTH);
+        holder.add(status, BorderLayout.SOUTH);
+        setContentPane(holder);
+        setSize(380, 120);
+        setLocationRelativeTo(parent);
+    }
+
+    public void update(TaskTransfer.Progress progress) {
+        SwingUtilities.invokeLater(() -> {
+            bar.setValue((int) (progress.getFraction() * 1000));
+            bar.setString(String.format("%.0f%%", progress.getFraction() * 100));
+            String text = String.format("%,d rows, %,.0f rows/s", progress.getRows(), progress.getRowsPerSecond());
+            if (progress.getSkipped() > 0) {
+                text += String.format(", %,d skipped", progress.getSkipped());
+            }
+            status.setText(text);
+        });
+    }
+}
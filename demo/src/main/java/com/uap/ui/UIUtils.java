@@ -1,9 +1,13 @@
 package com.uap.ui;
 
+import com.uap.data.DataManager;
+
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Font;
 
 import javax.swing.JButton;
+import javax.swing.JOptionPane;
 import javax.swing.border.EmptyBorder;
 
 public class UIUtils {
@@ -16,4 +20,13 @@ public class UIUtils {
         btn.setBorder(new EmptyBorder(10, 20, 10, 20));
         return btn;
     }
+
+    /** False, after telling the user, while tasks are still loading and cannot be changed yet. */
+    public static boolean checkLoaded(Component parent, DataManager dataManager) {
+        if (!dataManager.isLoaded()) {
+            JOptionPane.showMessageDialog(parent, "Tasks are still loading, please try again in a moment.");
+            return false;
+        }
+        return true;
+    }
 }
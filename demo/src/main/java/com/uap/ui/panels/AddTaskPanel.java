@@ -21,7 +21,6 @@ public class AddTaskPanel extends JPanel {
     private JTextArea txtDesc;
     private JComboBox<String> cbPriority, cbStatus;
     private DataManager dataManager;
-    private final Runnable refreshAll;
     private final Consumer<String> showCard;
 
     private JLabel headerLabel;
@@ -30,9 +29,8 @@ public class AddTaskPanel extends JPanel {
     private String editingId;
     private LocalDate editingCreatedDate;
 
-    public AddTaskPanel(DataManager dataManager, Runnable refreshAll, Consumer<String> showCard) {
+    public AddTaskPanel(DataManager dataManager, Consumer<String> showCard) {
         this.dataManager = dataManager;
-        this.refreshAll = refreshAll;
         this.showCard = showCard;
 
         setLayout(new BorderLayout());
@@ -65,6 +63,7 @@ public class AddTaskPanel extends JPanel {
         addFormRow(formPanel, gbc, 3, "Status:*", cbStatus);
 
         dueDatePicker = new LocalDatePickerField("YYYY-MM-DD");
+        dueDatePicker.setDueCounts(dataManager::getDueCounts);
         addFormRow(formPanel, gbc, 4, "Due Date (YYYY-MM-DD):", dueDatePicker);
 
         add(formPanel, BorderLayout.CENTER);
@@ -111,6 +110,9 @@ public class AddTaskPanel extends JPanel {
     }
 
     private void saveTask() {
+        if (!UIUtils.checkLoaded(this, dataManager)) {
+            return;
+        }
         try {
             if (txtTitle.getText().isEmpty())
                 throw new Exception("Title is required!");
@@ -142,7 +144,6 @@ public class AddTaskPanel extends JPanel {
             }
 
             resetToAddMode();
-            refreshAll.run();
             showCard.accept("LIST");
 
         } catch (DateTimeParseException dtpe) {
@@ -4,12 +4,15 @@ import com.uap.data.DataManager;
 import com.uap.ui.UIColors;
 
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.time.LocalDate;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
 public class DashboardPanel extends JPanel {
-    private JLabel lblTotal, lblCompleted, lblPending, lblRate;
+    private JLabel lblTotal, lblCompleted, lblPending, lblRate, lblOverdue, lblDueSoon;
     private DataManager dataManager;
 
     public DashboardPanel(DataManager dataManager) {
@@ -24,7 +27,7 @@ public class DashboardPanel extends JPanel {
         title.setForeground(UIColors.SIDEBAR_COLOR);
         add(title, BorderLayout.NORTH);
 
-        JPanel cardsPanel = new JPanel(new GridLayout(2, 2, 20, 20));
+        JPanel cardsPanel = new JPanel(new GridLayout(2, 3, 20, 20));
         cardsPanel.setBackground(UIColors.BG_COLOR);
         cardsPanel.setBorder(new EmptyBorder(20, 0, 0, 0));
 
@@ -32,8 +35,20 @@ public class DashboardPanel extends JPanel {
         lblCompleted = createCard(cardsPanel, "Completed", "0", UIColors.BTN_GREEN);
         lblPending = createCard(cardsPanel, "Pending", "0", UIColors.ACCENT_ORANGE);
         lblRate = createCard(cardsPanel, "Completion Rate", "0%", UIColors.ACCENT_PURPLE);
+        lblOverdue = createCard(cardsPanel, "Overdue", "0", UIColors.BTN_RED);
+        lblDueSoon = createCard(cardsPanel, "Due This Week", "0", UIColors.BTN_BLUE);
 
         add(cardsPanel, BorderLayout.CENTER);
+
+        dataManager.addChangeListener(batch -> updateStats());
+        // Overdue counts change with the date, not only with the data.
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                updateStats();
+            }
+        });
+        updateStats();
     }
 
     private JLabel createCard(JPanel parent, String title, String value, Color color) {
@@ -67,5 +82,9 @@ public class DashboardPanel extends JPanel {
         lblCompleted.setText(String.valueOf(comp));
         lblPending.setText(String.valueOf(pend));
         lblRate.setText(String.format("%.1f%%", rate));
+
+        LocalDate today = LocalDate.now();
+        lblOverdue.setText(String.valueOf(dataManager.countOverdue(today)));
+        lblDueSoon.setText(String.valueOf(dataManager.countDueThisWeek(today)));
     }
 }
@@ -1,18 +1,30 @@
 package com.uap.ui.panels;
 
 import com.uap.data.DataManager;
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
 import com.uap.model.Task;
 import com.uap.ui.UIColors;
 import com.uap.ui.UIUtils;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class HistoryPanel extends JPanel {
-    private DefaultTableModel model;
+    private static final LatencyHistogram LOAD_TIME = Metrics.timer("ui.history.load");
+    private static final int PAGE_SIZE = 200;
+    private static final int CACHED_PAGES = 8;
+
+    private CompletedTasksModel model;
     private DataManager dataManager;
+    private long loadedVersion = -1;
 
     public HistoryPanel(DataManager dataManager) {
         this.dataManager = dataManager;
@@ -26,8 +38,7 @@ public class HistoryPanel extends JPanel {
         title.setForeground(UIColors.SIDEBAR_COLOR);
         add(title, BorderLayout.NORTH);
 
-        String[] cols = { "ID", "Title", "Description", "Priority", "Due Date" };
-        model = new DefaultTableModel(cols, 0);
+        model = new CompletedTasksModel();
         JTable table = new JTable(model);
         table.setRowHeight(30);
         table.getTableHeader().setBackground(new Color(236, 240, 241));
@@ -42,14 +53,89 @@ public class HistoryPanel extends JPanel {
         JButton refreshBtn = UIUtils.createStyledButton("Refresh History", UIColors.BTN_BLUE);
         refreshBtn.addActionListener(e -> loadHistory());
         add(refreshBtn, BorderLayout.SOUTH);
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                loadHistoryIfChanged();
+            }
+        });
+        dataManager.addChangeListener(batch -> {
+            if (isShowing()) {
+                loadHistoryIfChanged();
+            }
+        });
+    }
+
+    private void loadHistoryIfChanged() {
+        if (loadedVersion != dataManager.getVersion()) {
+            loadHistory();
+        }
     }
 
     public void loadHistory() {
-        model.setRowCount(0);
-        for (Task t : dataManager.getTasks()) {
-            if (t.getStatus().equals("Completed")) {
-                model.addRow(
-                        new Object[] { t.getId(), t.getTitle(), t.getDescription(), t.getPriority(), t.getDueDate() });
+        long start = System.nanoTime();
+        loadedVersion = dataManager.getVersion();
+        model.reload();
+        LOAD_TIME.stop(start);
+    }
+
+    /**
+     * Reads the completed-task index a page at a time, only for the rows the
+     * table actually paints.
+     */
+    private final class CompletedTasksModel extends AbstractTableModel {
+        private final String[] columns = { "ID", "Title", "Description", "Priority", "Due Date" };
+        private final Map<Integer, List<Task>> pages = new LinkedHashMap<Integer, List<Task>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Task>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+        private int rowCount;
+
+        void reload() {
+            pages.clear();
+            rowCount = dataManager.getCompletedTasks().size();
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            List<Task> page = pages.computeIfAbsent(row / PAGE_SIZE,
+                    p -> dataManager.getCompletedTasks(p * PAGE_SIZE, PAGE_SIZE));
+            int offset = row % PAGE_SIZE;
+            if (offset >= page.size()) {
+                return null;
+            }
+
+            Task t = page.get(offset);
+            switch (column) {
+                case 0:
+                    return t.getId();
+                case 1:
+                    return t.getTitle();
+                case 2:
+                    return t.getDescription();
+                case 3:
+                    return t.getPriority();
+                default:
+                    return t.getDueDate();
             }
         }
     }
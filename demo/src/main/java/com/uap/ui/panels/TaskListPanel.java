@@ -1,35 +1,70 @@
 package com.uap.ui.panels;
 
 import com.uap.data.DataManager;
+import com.uap.data.TaskSearchIndex;
+import com.uap.data.TaskSnapshot;
+import com.uap.data.TaskTransfer;
+import com.uap.metrics.LatencyHistogram;
+import com.uap.metrics.Metrics;
 import com.uap.model.Task;
+import com.uap.ui.TaskFilterPipeline;
+import com.uap.ui.TaskRowSorter;
+import com.uap.ui.TaskTableModel;
+import com.uap.ui.TransferProgressDialog;
 import com.uap.ui.UIColors;
 import com.uap.ui.UIUtils;
 
 import java.util.function.Consumer;
 
 import java.awt.*;
-import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 public class TaskListPanel extends JPanel {
+    private static final LatencyHistogram FILTER_TIME = Metrics.timer("ui.filter.apply");
+
     private JTable table;
-    private DefaultTableModel model;
+    private TaskTableModel model;
     private JTextField searchField;
     private JComboBox<String> statusFilter;
+    private JComboBox<String> dueFilter;
     private DataManager dataManager;
-    private final Runnable refreshAll;
     private final Consumer<Task> startEdit;
-    private final TableRowSorter<DefaultTableModel> sorter;
+    private final TaskRowSorter sorter;
+    private final TaskFilterPipeline<ViewRequest, TaskRowSorter.View> filterPipeline;
+
+    /** What the table should show, read from the controls on the EDT. */
+    private static final class ViewRequest {
+        final String text;
+        /** Null for any status. */
+        final String status;
+        final int due;
+        final LocalDate today;
+        final List<? extends RowSorter.SortKey> sortKeys;
+
+        ViewRequest(String text, String status, int due, LocalDate today, List<? extends RowSorter.SortKey> sortKeys) {
+            this.text = text;
+            this.status = status;
+            this.due = due;
+            this.today = today;
+            this.sortKeys = sortKeys;
+        }
+    }
 
-    public TaskListPanel(DataManager dataManager, Runnable refreshAll, Consumer<Task> startEdit) {
+    public TaskListPanel(DataManager dataManager, Consumer<Task> startEdit) {
         this.dataManager = dataManager;
-        this.refreshAll = refreshAll;
         this.startEdit = startEdit;
 
         setLayout(new BorderLayout());
@@ -46,6 +81,7 @@ public class TaskListPanel extends JPanel {
 
         searchField = new JTextField(20);
         statusFilter = new JComboBox<>(new String[] { "ALL", "Pending", "Completed" });
+        dueFilter = new JComboBox<>(new String[] { "Any Date", "Overdue", "Due This Week" });
         JButton btnClear = new JButton("Clear Filters");
         btnClear.setBackground(UIColors.SIDEBAR_COLOR);
         btnClear.setForeground(Color.WHITE);
@@ -54,18 +90,25 @@ public class TaskListPanel extends JPanel {
         filterPanel.add(searchField);
         filterPanel.add(new JLabel("Status:"));
         filterPanel.add(statusFilter);
+        filterPanel.add(new JLabel("Due:"));
+        filterPanel.add(dueFilter);
         filterPanel.add(btnClear);
 
-        String[] cols = { "ID", "Title", "Description", "Priority", "Status", "Created", "Due Date" };
-        model = new DefaultTableModel(cols, 0) {
-            public boolean isCellEditable(int row, int column) {
-                return false;
+        model = new TaskTableModel(dataManager);
+        dataManager.addChangeListener(model::tasksChanged);
+        filterPipeline = new TaskFilterPipeline<>(this::computeView, this::showView, 150);
+        dataManager.addChangeListener(batch -> {
+            // The sorter places changed rows itself; search and due-date matches have to be looked up again.
+            if (!TaskSearchIndex.tokenize(searchField.getText()).isEmpty() || dueFilter.getSelectedIndex() > 0) {
+                filterPipeline.runNow(viewRequest());
             }
-        };
+        });
         table = new JTable(model);
         table.setRowHeight(30);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         table.getTableHeader().setBackground(new Color(236, 240, 241));
-        sorter = new TableRowSorter<>(model);
+        sorter = new TaskRowSorter(model, () -> filterPipeline.runNow(viewRequest()));
+        sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(TaskTableModel.COL_ID, SortOrder.ASCENDING)));
         table.setRowSorter(sorter);
 
         JScrollPane scrollPane = new JScrollPane(table);
@@ -73,11 +116,15 @@ public class TaskListPanel extends JPanel {
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         btnPanel.setBackground(UIColors.BG_COLOR);
 
+        JButton btnImport = UIUtils.createStyledButton("Import...", UIColors.SIDEBAR_COLOR);
+        JButton btnExport = UIUtils.createStyledButton("Export...", UIColors.SIDEBAR_COLOR);
         JButton btnComplete = UIUtils.createStyledButton("Mark Completed", UIColors.BTN_GREY);
         JButton btnAdd = UIUtils.createStyledButton("Add Task", UIColors.BTN_GREEN);
         JButton btnEdit = UIUtils.createStyledButton("Edit", UIColors.BTN_BLUE);
         JButton btnDelete = UIUtils.createStyledButton("Delete", UIColors.BTN_RED);
 
+        btnPanel.add(btnImport);
+        btnPanel.add(btnExport);
         btnPanel.add(btnComplete);
         btnPanel.add(btnAdd);
         btnPanel.add(btnEdit);
@@ -91,31 +138,43 @@ public class TaskListPanel extends JPanel {
 
         add(centerContainer, BorderLayout.CENTER);
 
-        searchField.addKeyListener(new KeyAdapter() {
-            public void keyReleased(KeyEvent e) {
-                filterTable();
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                filterPipeline.request(viewRequest());
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                filterPipeline.request(viewRequest());
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+                filterPipeline.request(viewRequest());
             }
         });
-        statusFilter.addActionListener(e -> filterTable());
+        statusFilter.addActionListener(e -> filterPipeline.runNow(viewRequest()));
+        dueFilter.addActionListener(e -> filterPipeline.runNow(viewRequest()));
         btnClear.addActionListener(e -> {
             searchField.setText("");
             statusFilter.setSelectedIndex(0);
-            filterTable();
+            dueFilter.setSelectedIndex(0);
+            filterPipeline.runNow(viewRequest());
         });
 
         btnComplete.addActionListener(e -> {
-            Task selected = getSelectedTaskFromTable();
-            if (selected == null) {
+            List<String> selected = getSelectedIds();
+            if (selected.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Please select a task first");
                 return;
             }
-            selected.setStatus("Completed");
-            dataManager.updateTask(selected.getId(), selected);
-            loadTableData();
-            refreshAll.run();
+            if (!UIUtils.checkLoaded(this, dataManager)) {
+                return;
+            }
+            dataManager.completeAll(selected);
         });
 
         btnAdd.addActionListener(e -> startEdit.accept(null));
+        btnImport.addActionListener(e -> importTasks());
+        btnExport.addActionListener(e -> exportTasks());
 
         btnEdit.addActionListener(e -> {
             Task selected = getSelectedTaskFromTable();
@@ -123,19 +182,29 @@ public class TaskListPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "Please select a task first");
                 return;
             }
+            if (table.getSelectedRowCount() > 1) {
+                JOptionPane.showMessageDialog(this, "Please select only one task to edit");
+                return;
+            }
             startEdit.accept(selected);
         });
         
         btnDelete.addActionListener(e -> {
-            Task selected = getSelectedTaskFromTable();
-            if (selected == null) {
+            List<String> selected = getSelectedIds();
+            if (selected.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Please select a task first");
                 return;
             }
+            if (!UIUtils.checkLoaded(this, dataManager)) {
+                return;
+            }
             
+            String question = selected.size() == 1
+                    ? "Are you sure you want to delete this task?\n\n" + getSelectedTaskFromTable().getTitle()
+                    : "Are you sure you want to delete these " + selected.size() + " tasks?";
             int confirm = JOptionPane.showConfirmDialog(
                     this,
-                    "Are you sure you want to delete this task?\n\n" + selected.getTitle(),
+                    question,
                     "Confirm Delete",
                     JOptionPane.YES_NO_OPTION,
                     JOptionPane.WARNING_MESSAGE);
@@ -143,10 +212,8 @@ public class TaskListPanel extends JPanel {
                 return;
             }
 
-            dataManager.deleteTask(selected.getId());
-            loadTableData();
-            refreshAll.run();
-            JOptionPane.showMessageDialog(this, "Task Deleted!");
+            dataManager.deleteAll(selected);
+            JOptionPane.showMessageDialog(this, selected.size() == 1 ? "Task Deleted!" : "Tasks Deleted!");
         });
 
 
@@ -158,35 +225,143 @@ public class TaskListPanel extends JPanel {
             return null;
         }
 
-        int modelRow = table.convertRowIndexToModel(viewRow);
-        String id = String.valueOf(model.getValueAt(modelRow, 0));
+        return model.getTaskAt(table.convertRowIndexToModel(viewRow));
+    }
+
+    private void importTasks() {
+        if (!UIUtils.checkLoaded(this, dataManager)) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV or JSON Lines", "csv", "jsonl", "ndjson", "json"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File source = chooser.getSelectedFile();
+        int keepIds = JOptionPane.showConfirmDialog(this,
+                "Keep the IDs from the file?\n\nYes replaces tasks that have the same ID;\n"
+                        + "No gives every imported task a new ID.",
+                "Import Tasks", JOptionPane.YES_NO_CANCEL_OPTION);
+        if (keepIds != JOptionPane.YES_OPTION && keepIds != JOptionPane.NO_OPTION) {
+            return;
+        }
+
+        TransferProgressDialog progress = new TransferProgressDialog(this, "Importing " + source.getName());
+        runTransfer("task-import", progress, () -> {
+            TaskTransfer.Report report = TaskTransfer.importTasks(dataManager, source, TaskTransfer.Format.of(source),
+                    keepIds == JOptionPane.YES_OPTION, SwingUtilities::invokeLater, progress::update);
+            StringBuilder message = new StringBuilder(String.format("Imported %,d tasks in %.1f s.",
+                    report.getImported(), report.getProgress().getElapsedNanos() / 1e9));
+            if (report.getSkipped() > 0) {
+                message.append(String.format("%n%,d rows were skipped:%n", report.getSkipped()));
+                for (String error : report.getErrors()) {
+                    message.append(error).append('\n');
+                }
+                message.append("\nFull list: ").append(report.getErrorFile().getPath());
+            }
+            return message.toString();
+        });
+    }
+
+    private void exportTasks() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV or JSON Lines", "csv", "jsonl"));
+        chooser.setSelectedFile(new File("tasks_export.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = chooser.getSelectedFile();
+
+        TransferProgressDialog progress = new TransferProgressDialog(this, "Exporting " + target.getName());
+        runTransfer("task-export", progress, () -> {
+            long start = System.nanoTime();
+            long rows = TaskTransfer.exportTasks(dataManager, target, TaskTransfer.Format.of(target),
+                    progress::update);
+            return String.format("Exported %,d tasks in %.1f s.", rows, (System.nanoTime() - start) / 1e9);
+        });
+    }
+
+    private interface Transfer {
+        String run() throws IOException;
+    }
 
-        for (Task t : dataManager.getTasks()) {
-            if (t.getId().equals(id)) {
-                return t;
+    // Reads and writes files off the EDT; the outcome is shown on it.
+    private void runTransfer(String threadName, TransferProgressDialog progress, Transfer transfer) {
+        progress.setVisible(true);
+        Thread worker = new Thread(() -> {
+            String message;
+            int type = JOptionPane.INFORMATION_MESSAGE;
+            try {
+                message = transfer.run();
+            } catch (IOException | RuntimeException e) {
+                message = "Transfer failed: " + e.getMessage();
+                type = JOptionPane.ERROR_MESSAGE;
             }
+            String text = message;
+            int messageType = type;
+            SwingUtilities.invokeLater(() -> {
+                progress.dispose();
+                JOptionPane.showMessageDialog(this, text, progress.getTitle(), messageType);
+            });
+        }, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // IDs rather than rows: the bulk change moves rows around as it goes.
+    private List<String> getSelectedIds() {
+        int[] rows = table.getSelectedRows();
+        List<String> ids = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            ids.add(dataManager.getIdAt(table.convertRowIndexToModel(row)));
         }
-        return null;
+        return ids;
     }
 
-    private void filterTable() {
-        String text = searchField.getText();
+    private ViewRequest viewRequest() {
         String status = (String) statusFilter.getSelectedItem();
+        return new ViewRequest(searchField.getText(), "ALL".equals(status) ? null : status,
+                dueFilter.getSelectedIndex(), LocalDate.now(), sorter.getSortKeys());
+    }
 
-        List<RowFilter<Object, Object>> filters = new ArrayList<>();
-        if (text.length() > 0)
-            filters.add(RowFilter.regexFilter("(?i)" + text));
-        if (!status.equals("ALL"))
-            filters.add(RowFilter.regexFilter(status, 4));
+    // Worker thread. The snapshot comes first so the matches are at least as new as the rows.
+    private TaskRowSorter.View computeView(ViewRequest request) {
+        try (TaskSnapshot snapshot = dataManager.snapshot()) {
+            Set<String> ids = TaskSearchIndex.tokenize(request.text).isEmpty() ? null
+                    : dataManager.search(request.text);
+            Set<String> due = dueIds(request.due, request.today);
+            if (due != null) {
+                if (ids == null) {
+                    ids = due;
+                } else {
+                    ids = new HashSet<>(ids);
+                    ids.retainAll(due);
+                }
+            }
+            return TaskRowSorter.compute(snapshot, ids, request.status, request.sortKeys);
+        }
+    }
 
-        sorter.setRowFilter(RowFilter.andFilter(filters));
+    private void showView(TaskRowSorter.View view) {
+        if (view.getVersion() != dataManager.getVersion()) {
+            // Rows changed while it was worked out; the row numbers may no longer fit.
+            filterPipeline.runNow(viewRequest());
+            return;
+        }
+        long start = System.nanoTime();
+        sorter.apply(view);
+        FILTER_TIME.stop(start);
     }
 
-    public void loadTableData() {
-        model.setRowCount(0);
-        for (Task t : dataManager.getTasks()) {
-            model.addRow(new Object[] { t.getId(), t.getTitle(), t.getDescription(), t.getPriority(), t.getStatus(),
-                    t.getCreatedDate(), t.getDueDate() });
+    // Read from the due-date index, so only the matching tasks are visited.
+    private Set<String> dueIds(int due, LocalDate today) {
+        switch (due) {
+            case 1:
+                return dataManager.findDueIdsBetween(null, today);
+            case 2:
+                return dataManager.findDueIdsBetween(today, today.plusDays(DataManager.DUE_SOON_DAYS));
+            default:
+                return null;
         }
     }
 }
@@ -0,0 +1,63 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BinarySnapshotTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final List<Task> tasks = Arrays.asList(
+            new Task("1", "Belajar Java", "", "Medium", "Completed", LocalDate.of(2025, 12, 24),
+                    LocalDate.of(2025, 12, 24)),
+            new Task("2", "Tugas, dengan koma", "Deskripsi ü 日本", "Urgent", "Blocked", LocalDate.of(2025, 12, 20),
+                    null));
+
+    @Test
+    public void roundTripsTasksAndSequence() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.bin");
+        BinarySnapshot.write(file, tasks, 42);
+
+        BinarySnapshot.Contents contents = BinarySnapshot.read(file);
+
+        assertEquals(42, contents.getLastId());
+        assertEquals(2, contents.getTasks().size());
+        Task second = contents.getTasks().get(1);
+        assertEquals("Tugas, dengan koma", second.getTitle());
+        assertEquals("Deskripsi ü 日本", second.getDescription());
+        assertEquals("Urgent", second.getPriority());
+        assertEquals("Blocked", second.getStatus());
+        assertNull(second.getDueDate());
+        assertEquals(tasks.get(0).toCSV(), contents.getTasks().get(0).toCSV());
+    }
+
+    @Test
+    public void rejectsCorruptedPayload() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.bin");
+        BinarySnapshot.write(file, tasks, 2);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 3);
+            raf.write(0x7F);
+        }
+
+        try {
+            BinarySnapshot.read(file);
+            fail("checksum mismatch not detected");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.uap.model.Task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ColumnarTaskStoreTest {
+    private static Task task(String id, String title) {
+        return new Task(id, title, "desc " + id, "High", "Pending", LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 2, 1));
+    }
+
+    @Test
+    public void roundTripsNumericAndOtherIds() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.add(task("7", "Belajar"));
+        store.add(new Task("A-01", "Ü 日本", null, "Urgent", "Blocked", LocalDate.of(2025, 1, 1), null));
+        store.add(task("007", "leading zero"));
+
+        assertEquals(0, store.indexOf("7"));
+        assertEquals(1, store.indexOf("A-01"));
+        assertEquals(2, store.indexOf("007"));
+        assertEquals(-1, store.indexOf("8"));
+
+        Task other = store.get(1);
+        assertEquals("A-01", other.getId());
+        assertEquals("Ü 日本", other.getTitle());
+        assertNull(other.getDescription());
+        assertEquals("Urgent", other.getPriority());
+        assertEquals("Blocked", other.getStatus());
+        assertNull(other.getDueDate());
+        assertEquals(task("007", "leading zero").toCSV(), store.get(2).toCSV());
+    }
+
+    @Test
+    public void swapRemoveMovesLastRow() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        for (int i = 1; i <= 4; i++) {
+            store.add(task(String.valueOf(i), "t" + i));
+        }
+
+        assertEquals("2", store.removeSwap(1).getId());
+
+        assertEquals(3, store.size());
+        assertEquals("4", store.get(1).getId());
+        assertEquals(1, store.indexOf("4"));
+        assertEquals(-1, store.indexOf("2"));
+    }
+
+    @Test
+    public void frozenCopySurvivesLaterChanges() {
+        ColumnarTaskStore store = new ColumnarTaskStore(16);
+        store.add(task("1", "first"));
+        List<Task> frozen = store.freeze();
+
+        store.set(0, task("1", "renamed"));
+        for (int i = 2; i < 5000; i++) {
+            store.add(task(String.valueOf(i), "filler " + i));
+        }
+
+        assertEquals(1, frozen.size());
+        assertEquals("first", frozen.get(0).getTitle());
+        assertEquals("renamed", store.get(0).getTitle());
+    }
+
+    @Test
+    public void reclaimsArenaAfterManyUpdates() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.add(task("1", "start"));
+        StringBuilder longTitle = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longTitle.append('x');
+        }
+        for (int i = 0; i < 5000; i++) {
+            store.set(0, task("1", longTitle + String.valueOf(i)));
+        }
+
+        assertEquals(longTitle + "4999", store.get(0).getTitle());
+        assertEquals(0, store.indexOf("1"));
+        assertEquals(true, store.footprintBytes() < 4 << 20);
+    }
+
+    @Test
+    public void rejectedTaskLeavesStoreUnchanged() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        // 1 status and 253 priorities leave room for one of the 255 values.
+        for (int i = 0; i < 253; i++) {
+            store.add(new Task(String.valueOf(i), "t", "d", "P" + i, "Pending", LocalDate.of(2025, 1, 1), null));
+        }
+        store.add(new Task("x", "t", "d", "P0", "Pending", LocalDate.of(2025, 1, 1), null));
+        String before = store.get(253).toCSV();
+
+        Task tooNew = new Task("y", "t", "d", "New priority", "New status", LocalDate.of(2025, 1, 1), null);
+        try {
+            store.add(tooNew);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            store.set(253, new Task("z", "t", "d", "New priority", "New status", LocalDate.of(2025, 1, 1), null));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(254, store.size());
+        assertEquals(-1, store.indexOf("y"));
+        assertEquals(-1, store.indexOf("z"));
+        assertEquals(253, store.indexOf("x"));
+        assertEquals(before, store.get(253).toCSV());
+        store.add(new Task("w", "t", "d", "Last one", "Pending", LocalDate.of(2025, 1, 1), null));
+        assertEquals("Last one", store.get(254).getPriority());
+    }
+}
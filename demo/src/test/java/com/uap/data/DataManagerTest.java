@@ -0,0 +1,574 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.uap.metrics.Metrics;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DataManagerTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static Task task(String id, String status) {
+        return new Task(id, "Task " + id, "desc " + id, "Medium", status, LocalDate.of(2025, 12, 1),
+                LocalDate.of(2025, 12, 24));
+    }
+
+    @Test
+    public void mutationsSurviveReopenThroughJournal() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        dm.addTask(task("1", "Pending"));
+        dm.addTask(task("2", "Pending"));
+        dm.updateTask("1", task("1", "Completed"));
+        dm.deleteTask("2");
+        dm.close();
+
+        assertFalse(file.exists());
+        assertTrue(new File(file.getPath() + ".journal").exists());
+
+        DataManager reopened = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(1, reopened.countTasks());
+        assertEquals("Completed", reopened.getTasks().get(0).getStatus());
+        reopened.close();
+    }
+
+    @Test
+    public void unreadableCsvRowsAreKeptWhenMigratingToTheBinarySnapshot() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        Files.write(file.toPath(), Arrays.asList(task("1", "Pending").toCSV(), "2,broken",
+                "3,Rusak,tanggal,Low,Pending,2025-13-01,"), StandardCharsets.UTF_8);
+
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(1, dm.countTasks());
+        dm.close();
+
+        assertTrue(BinarySnapshot.fileFor(file).exists());
+        assertEquals(Arrays.asList("2,broken", "3,Rusak,tanggal,Low,Pending,2025-13-01,"),
+                Files.readAllLines(new File(file.getPath() + ".rejected").toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void changingASnapshotTaskChangesNeitherTheSnapshotNorTheData() throws Exception {
+        for (String kind : Arrays.asList("list", "columnar", "offheap")) {
+            DataManager dm = new DataManager(new File(tmp.getRoot(), kind + ".csv"),
+                    TaskJournal.DEFAULT_COMPACT_THRESHOLD, DurabilityPolicy.everyCommit(), TaskStore.create(kind));
+            dm.addTask(task("1", "Pending")).get();
+
+            TaskSnapshot snapshot = dm.snapshot();
+            snapshot.get(0).setStatus("Completed");
+            snapshot.getTasks().get(0).setTitle("changed");
+            dm.findTask("1").setDueDate(null);
+
+            assertEquals(kind, task("1", "Pending").toCSV(), snapshot.get(0).toCSV());
+            assertEquals(kind, task("1", "Pending").toCSV(), dm.findTask("1").toCSV());
+            assertEquals(kind, 1, snapshot.countByStatus("Pending"));
+            dm.close();
+        }
+    }
+
+    @Test
+    public void journalKeepsTextWithCommasQuotesAndLineBreaks() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        Task tricky = new Task("1", "Rapat, \"penting\"", "baris satu\nbaris dua\r\n,", "High", "Pending",
+                LocalDate.of(2025, 12, 1), null);
+        dm.addTask(tricky);
+        dm.close();
+
+        // A record torn by a crash, with a quote that never closes.
+        Files.write(new File(file.getPath() + ".journal").toPath(), "U,2,\"setengah".getBytes(),
+                StandardOpenOption.APPEND);
+        DataManager reopened = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(1, reopened.countTasks());
+        reopened.addTask(task("3", "Pending"));
+        reopened.close();
+
+        DataManager again = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(2, again.countTasks());
+        assertEquals(tricky.getTitle(), again.findTask("1").getTitle());
+        assertEquals(tricky.getDescription(), again.findTask("1").getDescription());
+        again.close();
+    }
+
+    @Test
+    public void compactionThresholdCountsEncodedBytes() throws Exception {
+        TaskJournal journal = new TaskJournal(new File(tmp.getRoot(), "tasks.csv"), 200,
+                DurabilityPolicy.everyCommit(), e -> fail(e.getMessage()));
+        StringBuilder records = new StringBuilder();
+        TaskJournal.appendUpsert(new Task("1", "日本語のタスク", String.join("", Collections.nCopies(30, "説明")),
+                "Low", "Pending", LocalDate.of(2025, 1, 1), null), records);
+        // Under 200 chars, but well over 200 bytes in UTF-8.
+        assertTrue(records.length() < 200);
+        journal.commit(records.toString()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(journal.needsCompaction());
+        journal.close();
+        String mixed = records + "😀\ud800";
+        assertEquals(mixed.getBytes(StandardCharsets.UTF_8).length, TaskJournal.utf8Length(mixed));
+    }
+
+    @Test
+    public void compactionFoldsJournalIntoSnapshot() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, 256);
+        for (int i = 1; i <= 20; i++) {
+            dm.addTask(task(String.valueOf(i), "Pending"));
+        }
+        dm.close();
+
+        assertTrue(BinarySnapshot.fileFor(file).exists());
+        assertFalse(new File(file.getPath() + ".journal.compacting").exists());
+
+        DataManager reopened = new DataManager(file, 256);
+        assertEquals(20, reopened.countTasks());
+        reopened.close();
+    }
+
+    @Test
+    public void deleteSwapsLastTaskIntoFreedSlot() {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        dm.addTask(task("1", "Pending"));
+        dm.addTask(task("2", "Pending"));
+        dm.addTask(task("3", "Pending"));
+
+        dm.deleteTask("1");
+
+        assertEquals(2, dm.countTasks());
+        assertEquals(0, dm.indexOf("3"));
+        assertEquals("3", dm.findTask("3").getId());
+        assertEquals(null, dm.findTask("1"));
+        dm.close();
+    }
+
+    @Test
+    public void idSequenceNeverReusesDeletedIds() {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, 256);
+        for (int i = 0; i < 10; i++) {
+            dm.addTask(task(dm.generateUniqueId(), "Pending"));
+        }
+        dm.deleteTask("10");
+        for (int i = 0; i < 10; i++) {
+            dm.updateTask("1", task("1", i % 2 == 0 ? "Completed" : "Pending"));
+        }
+        dm.close();
+
+        DataManager reopened = new DataManager(file, 256);
+        assertEquals("11", reopened.generateUniqueId());
+        reopened.close();
+    }
+
+    @Test
+    public void statusCountersFollowTransitions() {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        dm.addTask(task("1", "Pending"));
+        dm.addTask(task("2", "Pending"));
+        dm.addTask(task("3", "Completed"));
+        assertEquals(2, dm.countPending());
+        assertEquals(1, dm.countCompleted());
+
+        dm.updateTask("1", task("1", "Completed"));
+        assertEquals(1, dm.countPending());
+        assertEquals(2, dm.countCompleted());
+
+        dm.deleteTask("3");
+        assertEquals(1, dm.countPending());
+        assertEquals(1, dm.countCompleted());
+        assertEquals(2, dm.countByPriority("Medium"));
+        dm.close();
+    }
+
+    @Test
+    public void completedTasksAreListedLatestDueFirst() {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        for (int i = 1; i <= 5000; i++) {
+            dm.addTask(new Task(String.valueOf(i), "t", "d", "Low", i % 2 == 0 ? "Completed" : "Pending",
+                    LocalDate.of(2020, 1, 1), i % 10 == 0 ? null : LocalDate.of(2020, 1, 1).plusDays(i % 700)));
+        }
+        dm.updateTask("1", task("1", "Completed"));
+        dm.updateTask("4", task("4", "Pending"));
+        dm.deleteTask("6");
+
+        List<Task> completed = dm.getCompletedTasks();
+        assertEquals(dm.countCompleted(), completed.size());
+        assertEquals("1", completed.get(0).getId());
+        for (int i = 1; i < completed.size(); i++) {
+            LocalDate before = completed.get(i - 1).getDueDate();
+            LocalDate after = completed.get(i).getDueDate();
+            assertTrue(after == null || (before != null && !before.isBefore(after)));
+            assertEquals("Completed", completed.get(i).getStatus());
+        }
+        List<Task> page = dm.getCompletedTasks(2000, 200);
+        assertEquals(200, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(completed.get(2000 + i).getId(), page.get(i).getId());
+        }
+        assertEquals(completed.get(completed.size() - 1).getId(),
+                dm.getCompletedTasks(completed.size() - 1, 200).get(0).getId());
+        dm.close();
+    }
+
+    @Test
+    public void dueDateQueriesCoverOnlyOpenTasks() {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        LocalDate today = LocalDate.of(2025, 6, 10);
+        String[] statuses = { "Completed", "Pending" };
+        for (int i = 1; i <= 40; i++) {
+            dm.addTask(new Task(String.valueOf(i), "t", "d", "Low", statuses[i % 2], today.minusDays(30),
+                    i == 40 ? null : today.plusDays(i - 20)));
+        }
+
+        List<Task> overdue = dm.findDueBetween(null, today);
+        assertEquals(10, overdue.size());
+        assertEquals("1", overdue.get(0).getId());
+        assertEquals("19", overdue.get(9).getId());
+        assertEquals(10, dm.countOverdue(today));
+        assertEquals(3, dm.countDueThisWeek(today));
+        assertEquals(new HashSet<>(Arrays.asList("21", "23", "25")),
+                dm.findDueIdsBetween(today.plusDays(1), today.plusDays(DataManager.DUE_SOON_DAYS)));
+
+        dm.updateTask("1", new Task("1", "t", "d", "Low", "Completed", today, today.minusDays(19)));
+        dm.updateTask("21", new Task("21", "t", "d", "Low", "Pending", today, today.minusDays(1)));
+        assertEquals(10, dm.countOverdue(today));
+        assertEquals("21", dm.findDueBetween(null, today).get(9).getId());
+
+        int[] june = dm.getDueCounts(YearMonth.of(2025, 6));
+        assertEquals(30, june.length);
+        assertEquals(2, june[8]);
+        assertEquals(0, june[9]);
+        assertEquals(0, june[10]);
+        assertEquals(1, june[12]);
+        assertEquals(0, dm.getDueCounts(YearMonth.of(2025, 5))[21]);
+        assertEquals(1, dm.getDueCounts(YearMonth.of(2025, 5))[23]);
+        assertEquals(29, dm.getDueCounts(YearMonth.of(2024, 2)).length);
+        dm.close();
+    }
+
+    @Test
+    public void snapshotsStayConsistentWhileOtherThreadsWrite() throws Exception {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), TaskJournal.DEFAULT_COMPACT_THRESHOLD,
+                DurabilityPolicy.onIdle());
+        int writers = 4;
+        int perWriter = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Future<Integer> reader = pool.submit(() -> {
+            int checked = 0;
+            long lastVersion = -1;
+            while (writing.get()) {
+                TaskSnapshot snapshot = dm.snapshot();
+                assertTrue(snapshot.getVersion() >= lastVersion);
+                lastVersion = snapshot.getVersion();
+                long completed = 0;
+                for (Task task : snapshot.getTasks()) {
+                    if ("Completed".equals(task.getStatus())) {
+                        completed++;
+                    }
+                }
+                assertEquals(snapshot.countByStatus("Completed"), completed);
+                assertEquals(snapshot.size(), completed + snapshot.countByStatus("Pending"));
+                checked++;
+            }
+            return checked;
+        });
+
+        List<Future<?>> work = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            work.add(pool.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    String id = dm.generateUniqueId();
+                    dm.addTask(task(id, "Pending"));
+                    if (i % 2 == 0) {
+                        dm.updateTask(id, task(id, "Completed"));
+                    }
+                    if (i % 5 == 0) {
+                        dm.deleteTask(id);
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : work) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+        pool.shutdown();
+
+        int expected = writers * (perWriter - perWriter / 5);
+        assertEquals(expected, dm.countTasks());
+        assertEquals(expected, dm.snapshot().size());
+        assertEquals(dm.getVersion(), dm.snapshot().getVersion());
+        dm.close();
+    }
+
+    @Test
+    public void changesArePublishedAsVersionedBatches() {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        List<TaskChangeBatch> batches = new ArrayList<>();
+        dm.addChangeListener(batches::add);
+
+        dm.addTask(task("1", "Pending"));
+        dm.batch(() -> {
+            dm.addTask(task("2", "Pending"));
+            dm.updateTask("1", task("1", "Completed"));
+            dm.deleteTask("1");
+        });
+
+        assertEquals(2, batches.size());
+        assertEquals(TaskChangeEvent.Type.ADDED, batches.get(0).getEvents().get(0).getType());
+        assertEquals(3, batches.get(1).getEvents().size());
+        assertEquals("Pending", batches.get(1).getEvents().get(1).getPrevious().getStatus());
+        assertEquals(TaskChangeEvent.Type.REMOVED, batches.get(1).getEvents().get(2).getType());
+        assertEquals(2, dm.getVersion());
+        dm.close();
+    }
+
+    @Test
+    public void bulkChangesCommitOnceAndPublishOneBatch() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        List<String> ids = new ArrayList<>();
+        dm.batch(() -> {
+            for (int i = 1; i <= 5000; i++) {
+                dm.addTask(task(String.valueOf(i), i % 2 == 0 ? "Completed" : "Pending"));
+                ids.add(String.valueOf(i));
+            }
+        });
+        List<TaskChangeBatch> batches = new ArrayList<>();
+        dm.addChangeListener(batches::add);
+        long commits = Metrics.counter("journal.commits").sum();
+
+        dm.completeAll(ids).get(10, TimeUnit.SECONDS);
+        dm.deleteAll(Arrays.asList("1", "2", "unknown")).get(10, TimeUnit.SECONDS);
+        dm.updateAll(Arrays.asList("3", "5"), t -> t.setPriority("High"));
+
+        assertEquals(commits + 3, Metrics.counter("journal.commits").sum());
+        assertEquals(3, batches.size());
+        // Tasks that were already completed are left alone.
+        assertEquals(2500, batches.get(0).getEvents().size());
+        assertEquals(2, batches.get(1).getEvents().size());
+        assertEquals(4998, dm.countCompleted());
+        assertEquals(2, dm.countByPriority("High"));
+        dm.close();
+
+        DataManager reopened = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(4998, reopened.countCompleted());
+        assertEquals("High", reopened.findTask("5").getPriority());
+        reopened.close();
+    }
+
+    @Test
+    public void rapidEditsShareJournalWrites() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD, DurabilityPolicy.interval(50));
+        List<CompletableFuture<Void>> commits = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            commits.add(dm.addTask(task(String.valueOf(i), "Pending")));
+        }
+        CompletableFuture.allOf(commits.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        dm.close();
+
+        DataManager reopened = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(500, reopened.countTasks());
+        reopened.close();
+    }
+
+    @Test
+    public void csvDataSetIsMigratedToBinarySnapshot() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        Files.write(file.toPath(), Arrays.asList(
+                "1,Belajar Java,,Medium,Completed,2025-12-24,2025-12-24",
+                "2,Kerjakan UAP,Buat laporan,High,Pending,2025-12-24,2025-12-28"));
+
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        dm.close();
+        assertTrue(BinarySnapshot.fileFor(file).exists());
+
+        Files.delete(file.toPath());
+        DataManager reopened = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(2, reopened.countTasks());
+        assertEquals("Buat laporan", reopened.findTask("2").getDescription());
+        assertEquals("3", reopened.generateUniqueId());
+        reopened.close();
+    }
+
+    @Test
+    public void backgroundLoadAnnouncesGrowingChunksAndRefusesChangesUntilDone() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            tasks.add(task(String.valueOf(i), "Pending"));
+        }
+        BinarySnapshot.write(BinarySnapshot.fileFor(file), tasks, 5000);
+        DataManager dm = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        dm.updateTask("1", task("1", "Completed"));
+        dm.deleteTask("2");
+        dm.close();
+
+        BlockingQueue<Runnable> edt = new LinkedBlockingQueue<>();
+        DataManager loading = new DataManager(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD,
+                DurabilityPolicy.everyCommit(), new ListTaskStore(), null, edt::add);
+        List<Integer> announced = new ArrayList<>();
+        loading.addChangeListener(batch -> announced.add(batch.getEvents().size()));
+        assertFalse(loading.isLoaded());
+        try {
+            loading.addTask(task("6000", "Pending"));
+            fail("changes must wait for the load");
+        } catch (IllegalStateException expected) {
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!loading.whenLoaded().isDone()) {
+            assertTrue("timed out", System.nanoTime() < deadline);
+            Runnable update = edt.poll(50, TimeUnit.MILLISECONDS);
+            if (update != null) {
+                update.run();
+            }
+        }
+
+        // 1024, 2048 and 4096 tasks, then the rest with the journal's update and delete.
+        assertEquals(Arrays.asList(1024, 1024, 2048, 906), announced);
+        assertEquals(4999, loading.countTasks());
+        assertEquals("Completed", loading.findTask("1").getStatus());
+        assertEquals("5001", loading.generateUniqueId());
+        loading.close();
+    }
+
+    @Test
+    public void columnarStoreBehavesLikeListStore() throws Exception {
+        checkAlternativeStore(new ColumnarTaskStore(), new ColumnarTaskStore());
+    }
+
+    @Test
+    public void offHeapStoreBehavesLikeListStore() throws Exception {
+        checkAlternativeStore(new OffHeapTaskStore(), new OffHeapTaskStore());
+    }
+
+    @Test
+    public void offHeapModeAnswersQueriesByScanningAsTheIndexesDo() throws Exception {
+        DataManager indexed = new DataManager(new File(tmp.getRoot(), "list.csv"),
+                TaskJournal.DEFAULT_COMPACT_THRESHOLD, DurabilityPolicy.everyCommit(), new ListTaskStore());
+        DataManager scanned = new DataManager(new File(tmp.getRoot(), "offheap.csv"),
+                TaskJournal.DEFAULT_COMPACT_THRESHOLD, DurabilityPolicy.everyCommit(), new OffHeapTaskStore());
+        for (DataManager dm : Arrays.asList(indexed, scanned)) {
+            dm.batch(() -> {
+                for (int i = 1; i <= 300; i++) {
+                    String id = i % 7 == 0 ? "x" + i : String.valueOf(i);
+                    LocalDate due = i % 5 == 0 ? null : LocalDate.of(2025, 11, 1).plusDays(i % 60);
+                    dm.addTask(new Task(id, "Tugas " + (i % 4 == 0 ? "laporan" : "rapat") + " " + i,
+                            "minggu " + (i % 3), "Low", i % 3 == 0 ? "Completed" : "Pending",
+                            LocalDate.of(2025, 10, 1), due));
+                }
+                dm.deleteTask("10");
+                dm.updateTask("11", new Task("11", "Tugas baru", "", "High", "Completed", LocalDate.of(2025, 10, 1),
+                        LocalDate.of(2025, 12, 1)));
+            }).get();
+        }
+
+        LocalDate today = LocalDate.of(2025, 12, 10);
+        for (String query : Arrays.asList("lap", "rapat minggu 1", "tugas", "nothing")) {
+            assertEquals(query, indexed.search(query), scanned.search(query));
+        }
+        assertEquals(ids(indexed.findDueBetween(null, today)), ids(scanned.findDueBetween(null, today)));
+        assertEquals(ids(indexed.findDueBetween(today, null)), ids(scanned.findDueBetween(today, null)));
+        assertEquals(indexed.countOverdue(today), scanned.countOverdue(today));
+        assertEquals(indexed.countDueThisWeek(today), scanned.countDueThisWeek(today));
+        assertEquals(indexed.getCompletedTasks().size(), scanned.getCompletedTasks().size());
+        for (int from : new int[] { 0, 40, 95, 200 }) {
+            assertEquals(ids(indexed.getCompletedTasks(from, 30)), ids(scanned.getCompletedTasks(from, 30)));
+        }
+        assertEquals(indexed.getCompletedTasks().get(7).getId(), scanned.getCompletedTasks().get(7).getId());
+        indexed.close();
+        scanned.close();
+    }
+
+    @Test
+    public void offHeapModeKeepsTheHeapFlat() throws Exception {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv"), Long.MAX_VALUE,
+                DurabilityPolicy.everyCommit(), new OffHeapTaskStore());
+        addTasks(dm, 0, 20000);
+        dm.snapshot().close();
+        long small = usedHeapAfterGc();
+
+        addTasks(dm, 20000, 120000);
+        dm.snapshot().close();
+        long large = usedHeapAfterGc();
+
+        // On the heap, 100,000 more tasks and their indexes take tens of megabytes.
+        assertEquals(120000, dm.countTasks());
+        assertTrue((large - small) / 1024 + " KB", large - small < 4 << 20);
+        dm.close();
+    }
+
+    private static void addTasks(DataManager dm, int from, int to) throws Exception {
+        dm.batch(() -> {
+            for (int i = from; i < to; i++) {
+                dm.addTask(new Task(String.valueOf(i + 1), "Tugas nomor " + i, "Deskripsi tugas " + i, "Medium",
+                        i % 4 == 0 ? "Completed" : "Pending", LocalDate.of(2025, 1, 1),
+                        LocalDate.of(2025, 1, 1).plusDays(i % 365)));
+            }
+        }).get();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        List<String> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    private void checkAlternativeStore(TaskStore store, TaskStore reopenStore) throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        DataManager dm = new DataManager(file, 256, DurabilityPolicy.everyCommit(), store);
+        for (int i = 1; i <= 20; i++) {
+            dm.addTask(task(String.valueOf(i), "Pending"));
+        }
+        dm.updateTask("5", task("5", "Completed"));
+        dm.deleteTask("1");
+        dm.close();
+
+        DataManager reopened = new DataManager(file, 256, DurabilityPolicy.everyCommit(), reopenStore);
+        assertEquals(19, reopened.countTasks());
+        assertEquals(1, reopened.countCompleted());
+        assertEquals(0, reopened.indexOf("20"));
+        assertEquals("Completed", reopened.findTask("5").getStatus());
+        reopened.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.uap.model.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class DueDateIndexTest {
+    private static Task task(int id, int day) {
+        return new Task(String.valueOf(id), "t", "d", "Low", "Pending", LocalDate.of(2025, 1, 1),
+                day < 0 ? null : LocalDate.ofEpochDay(day));
+    }
+
+    private static String key(Task task) {
+        // Sorts like the index for the ids used here: day first, then numeric id.
+        return String.format("%011d/%09d", (long) DueDateIndex.dayOf(task) - Integer.MIN_VALUE,
+                Long.parseLong(task.getId()));
+    }
+
+    @Test
+    public void staysSortedThroughRandomChanges() {
+        DueDateIndex index = new DueDateIndex();
+        TreeMap<String, Task> expected = new TreeMap<>();
+        Random random = new Random(7);
+        List<Task> live = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                Task t = task(i, random.nextInt(50) == 0 ? -1 : 20000 + random.nextInt(400));
+                index.add(t);
+                expected.put(key(t), t);
+                live.add(t);
+            } else {
+                Task t = live.remove(random.nextInt(live.size()));
+                assertEquals(true, index.remove(t));
+                expected.remove(key(t));
+            }
+        }
+        assertFalse(index.remove(task(999999, 1)));
+
+        List<String> ids = new ArrayList<>();
+        for (Task t : expected.values()) {
+            ids.add(t.getId());
+        }
+        assertEquals(ids.size(), index.size());
+        assertEquals(ids, index.ids(0, index.size()));
+        assertEquals(ids.get(1234), index.idAt(1234));
+
+        int before = 0;
+        for (Task t : expected.values()) {
+            if (DueDateIndex.dayOf(t) < 20200) {
+                before++;
+            }
+        }
+        assertEquals(before, index.rankOf(20200));
+        assertEquals(0, index.rankOf(DueDateIndex.NO_DATE));
+    }
+
+    @Test
+    public void mixedIdsKeepOneOrder() {
+        DueDateIndex index = new DueDateIndex();
+        List<Task> live = new ArrayList<>();
+        String[] ids = { "9", "10", "1a", "A-01", "010", "100", "b", "" };
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            String id = ids[random.nextInt(ids.length)] + (random.nextBoolean() ? "" : String.valueOf(i));
+            Task t = new Task(id, "t", "d", "Low", "Pending", LocalDate.of(2025, 1, 1),
+                    LocalDate.ofEpochDay(20000 + random.nextInt(3)));
+            index.add(t);
+            live.add(t);
+        }
+        for (int i = 0; i < 2500; i++) {
+            assertEquals(true, index.remove(live.remove(random.nextInt(live.size()))));
+        }
+        assertEquals(live.size(), index.size());
+
+        List<String> sorted = index.idsBetween(20000, 20003);
+        assertEquals(live.size(), sorted.size());
+        List<Task> expected = new ArrayList<>(live);
+        expected.sort((a, b) -> DueDateIndex.compare(DueDateIndex.dayOf(a), a.getId(), DueDateIndex.dayOf(b),
+                b.getId()));
+        List<String> expectedIds = new ArrayList<>();
+        for (Task t : expected) {
+            expectedIds.add(t.getId());
+        }
+        assertEquals(expectedIds, sorted);
+        assertTrue(DueDateIndex.compare(0, "9", 0, "10") < 0);
+        assertTrue(DueDateIndex.compare(0, "10", 0, "1a") < 0);
+        assertTrue(DueDateIndex.compare(0, "9", 0, "1a") < 0);
+    }
+}
@@ -0,0 +1,49 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+
+import com.uap.model.Task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ListTaskStoreTest {
+    private static Task task(String id, String title) {
+        return new Task(id, title, "desc " + id, "High", "Pending", LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 2, 1));
+    }
+
+    @Test
+    public void tasksInAndOutAreNotShared() {
+        ListTaskStore store = new ListTaskStore();
+        Task added = task("1", "first");
+        store.add(added);
+        List<Task> frozen = store.freeze();
+
+        added.setTitle("changed after add");
+        store.get(0).setStatus("Completed");
+        frozen.get(0).setDueDate(null);
+
+        assertEquals(task("1", "first").toCSV(), store.get(0).toCSV());
+        assertEquals(task("1", "first").toCSV(), frozen.get(0).toCSV());
+    }
+
+    @Test
+    public void frozenCopySurvivesLaterChanges() {
+        ListTaskStore store = new ListTaskStore();
+        store.add(task("1", "first"));
+        store.add(task("2", "second"));
+        List<Task> frozen = store.freeze();
+
+        store.set(0, task("1", "edited"));
+        store.removeSwap(1);
+        store.add(task("3", "third"));
+
+        assertEquals(2, frozen.size());
+        assertEquals("first", frozen.get(0).getTitle());
+        assertEquals("second", frozen.get(1).getTitle());
+        assertEquals("edited", store.get(0).getTitle());
+    }
+}
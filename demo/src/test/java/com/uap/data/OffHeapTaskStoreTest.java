@@ -0,0 +1,139 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.uap.model.Task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+public class OffHeapTaskStoreTest {
+    private static Task task(String id, String title) {
+        return new Task(id, title, "desc " + id, "High", "Pending", LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 2, 1));
+    }
+
+    @Test
+    public void roundTripsAndFindsTasksById() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        for (int i = 1; i <= 10000; i++) {
+            store.add(task(String.valueOf(i), "t" + i));
+        }
+        store.add(new Task("A-01", "Ü 日本", null, "Urgent", "Blocked", LocalDate.of(2025, 1, 1), null));
+
+        assertEquals(10001, store.size());
+        assertEquals(4999, store.indexOf("5000"));
+        assertEquals(10000, store.indexOf("A-01"));
+        assertEquals(-1, store.indexOf("0"));
+        assertEquals("5000", store.idAt(4999));
+        assertEquals("Blocked", store.statusAt(10000));
+
+        Task other = store.get(10000);
+        assertEquals("Ü 日本", other.getTitle());
+        assertNull(other.getDescription());
+        assertNull(other.getDueDate());
+        assertEquals(task("7", "t7").toCSV(), store.get(6).toCSV());
+    }
+
+    @Test
+    public void swapRemoveMovesLastRow() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        for (int i = 1; i <= 4; i++) {
+            store.add(task(String.valueOf(i), "t" + i));
+        }
+
+        assertEquals("2", store.removeSwap(1).getId());
+
+        assertEquals(3, store.size());
+        assertEquals("4", store.get(1).getId());
+        assertEquals(1, store.indexOf("4"));
+        assertEquals(-1, store.indexOf("2"));
+    }
+
+    @Test
+    public void freedSlotsAreReused() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        store.add(task("1", "start"));
+        long footprint = store.footprintBytes();
+        for (int i = 0; i < 200000; i++) {
+            store.set(0, task("1", "title " + i));
+        }
+
+        assertEquals("title 199999", store.get(0).getTitle());
+        assertEquals(footprint, store.footprintBytes());
+    }
+
+    @Test
+    public void frozenViewKeepsReadingReplacedRecords() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        store.add(task("1", "first"));
+        List<Task> frozen = store.freeze();
+
+        store.set(0, task("1", "renamed"));
+        store.removeSwap(0);
+        for (int i = 2; i < 100; i++) {
+            store.add(task(String.valueOf(i), "filler " + i));
+        }
+
+        assertEquals(task("1", "first").toCSV(), frozen.get(0).toCSV());
+        assertEquals("filler 2", store.get(0).getTitle());
+    }
+
+    @Test
+    public void releasedViewLetsFreedSlotsBeReusedAtOnce() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        store.add(task("1", "start"));
+        List<Task> frozen = store.freeze();
+        store.set(0, task("1", "renamed"));
+        assertEquals("start", frozen.get(0).getTitle());
+
+        // Still reachable, but released: nothing is held back for it any more.
+        store.release(frozen);
+        long footprint = store.footprintBytes();
+        for (int i = 0; i < 200000; i++) {
+            store.set(0, task("1", "title " + i));
+        }
+        assertEquals(footprint, store.footprintBytes());
+        try {
+            frozen.get(0);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals("title 199999", store.freeze().get(0).getTitle());
+    }
+
+    @Test
+    public void rejectedTaskLeavesStoreUnchanged() {
+        OffHeapTaskStore store = new OffHeapTaskStore();
+        // 1 status and 253 priorities leave room for one of the 255 values.
+        for (int i = 0; i < 253; i++) {
+            store.add(new Task(String.valueOf(i), "t", "d", "P" + i, "Pending", LocalDate.of(2025, 1, 1), null));
+        }
+        store.add(new Task("x", "t", "d", "P0", "Pending", LocalDate.of(2025, 1, 1), null));
+        String before = store.get(253).toCSV();
+
+        Task tooNew = new Task("y", "t", "d", "New priority", "New status", LocalDate.of(2025, 1, 1), null);
+        try {
+            store.add(tooNew);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            store.set(253, new Task("z", "t", "d", "New priority", "New status", LocalDate.of(2025, 1, 1), null));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(254, store.size());
+        assertEquals(-1, store.indexOf("y"));
+        assertEquals(-1, store.indexOf("z"));
+        assertEquals(253, store.indexOf("x"));
+        assertEquals(before, store.get(253).toCSV());
+        store.add(new Task("w", "t", "d", "Last one", "Pending", LocalDate.of(2025, 1, 1), null));
+        assertEquals("Last one", store.get(254).getPriority());
+    }
+}
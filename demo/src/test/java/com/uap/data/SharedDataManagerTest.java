@@ -0,0 +1,146 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.uap.model.Task;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SharedDataManagerTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /** Stands in for the EDT: remote changes queue up until the test thread runs them. */
+    private static final class Owner {
+        final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+        final DataManager dm;
+
+        Owner(File file, long compactThreshold) {
+            dm = new DataManager(file, compactThreshold, DurabilityPolicy.everyCommit(), new ListTaskStore(),
+                    queue::add);
+        }
+
+        void await(BooleanSupplier condition) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!condition.getAsBoolean()) {
+                assertTrue("timed out", System.nanoTime() < deadline);
+                Runnable update = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (update != null) {
+                    update.run();
+                }
+            }
+        }
+    }
+
+    private static Task task(String id, String title) {
+        return new Task(id, title, "desc", "Low", "Pending", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1));
+    }
+
+    @Test
+    public void changesReachTheOtherInstance() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        Owner a = new Owner(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+        Owner b = new Owner(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+
+        String first = a.dm.generateUniqueId();
+        String second = b.dm.generateUniqueId();
+        assertNotEquals(first, second);
+
+        a.dm.addTask(task(first, "from a")).get();
+        b.await(() -> b.dm.findTask(first) != null);
+        assertEquals("from a", b.dm.findTask(first).getTitle());
+
+        b.dm.addTask(task(second, "from b")).get();
+        b.dm.updateTask(first, task(first, "edited by b")).get();
+        a.await(() -> a.dm.countTasks() == 2 && "edited by b".equals(a.dm.findTask(first).getTitle()));
+
+        a.dm.deleteTask(second).get();
+        b.await(() -> b.dm.findTask(second) == null);
+        assertEquals(1, b.dm.countTasks());
+
+        a.dm.close();
+        b.dm.close();
+    }
+
+    @Test
+    public void compactionByOneInstanceKeepsEveryoneConsistent() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        Owner a = new Owner(file, 2048);
+        Owner b = new Owner(file, 2048);
+
+        for (int i = 0; i < 300; i++) {
+            Owner writer = i % 3 == 0 ? b : a;
+            String id = writer.dm.generateUniqueId();
+            writer.dm.addTask(task(id, "task " + i)).get();
+        }
+        a.await(() -> a.dm.countTasks() == 300);
+        a.dm.deleteTask("1").get();
+        b.await(() -> b.dm.countTasks() == 299 && b.dm.findTask("1") == null);
+        a.dm.close();
+        b.dm.close();
+
+        assertTrue(BinarySnapshot.fileFor(file).exists());
+        DataManager reopened = new DataManager(file, 2048);
+        assertEquals(299, reopened.countTasks());
+        assertNull(reopened.findTask("1"));
+        assertEquals(300, Long.parseLong(reopened.generateUniqueId()) - 1);
+        reopened.close();
+    }
+
+    @Test
+    public void tailerResyncsAfterALogItNeverSawIsFolded() throws Exception {
+        File file = new File(tmp.getRoot(), "tasks.csv");
+        TaskJournal reader = new TaskJournal(file, TaskJournal.DEFAULT_COMPACT_THRESHOLD,
+                DurabilityPolicy.everyCommit(), e -> fail(e.toString()), true);
+        List<String> tailed = new ArrayList<>();
+        List<Map<String, Task>> resyncs = new ArrayList<>();
+        JournalTailer tailer = new JournalTailer(reader, tailed::addAll, resyncs::add, e -> fail(e.toString()));
+        // No log yet.
+        tailer.moveToEnd();
+
+        // Another instance creates a log, folds it and starts the next one before the tailer looks again.
+        TaskJournal first = new TaskJournal(file, 1, DurabilityPolicy.everyCommit(), e -> fail(e.toString()), true);
+        first.commit(upsert(task("1", "folded"))).get();
+        first.compact(null, 0);
+        first.close();
+        TaskJournal second = new TaskJournal(file, 1, DurabilityPolicy.everyCommit(), e -> fail(e.toString()),
+                true);
+        second.commit(upsert(task("2", "after the fold"))).get();
+
+        tailer.poll();
+        assertEquals(1, resyncs.size());
+        assertEquals("folded", resyncs.get(0).get("1").getTitle());
+        assertEquals("after the fold", resyncs.get(0).get("2").getTitle());
+        assertTrue(tailed.isEmpty());
+
+        // Back in step: the next record arrives on its own.
+        second.commit(upsert(task("3", "tailed"))).get();
+        tailer.poll();
+        assertEquals(1, resyncs.size());
+        assertEquals(1, tailed.size());
+        second.close();
+        reader.close();
+    }
+
+    private static String upsert(Task task) {
+        StringBuilder records = new StringBuilder();
+        TaskJournal.appendUpsert(task, records);
+        return records.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.uap.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TaskFileLoaderTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File write(List<String> lines) throws IOException {
+        File file = tmp.newFile("tasks.csv");
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void parsesChunksInFileOrder() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            lines.add(i + ",Tugas ke-" + i + ",Deskripsi é " + i + ",High,Pending,2025-12-01,2025-12-" + (10 + i % 20));
+        }
+        File file = write(lines);
+
+        List<Task> loaded = TaskFileLoader.load(file, 97, skipped -> fail(skipped));
+
+        assertEquals(lines.size(), loaded.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(lines.get(i), loaded.get(i).toCSV());
+        }
+    }
+
+    @Test
+    public void skipsBlankAndMalformedLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("1,Belajar Java,,Medium,Completed,2025-12-24,2025-12-24");
+        lines.add("   ");
+        lines.add("2,broken");
+        lines.add("3,Baca materi,Swing\r");
+        lines.add("4,Latihan OOP,Inheritance,Low,Pending,2025-12-20,2025-12-21\r");
+        File file = write(lines);
+
+        List<String> skipped = new ArrayList<>();
+        List<Task> loaded = TaskFileLoader.load(file, skipped::add);
+
+        assertEquals(Arrays.asList("2,broken", "3,Baca materi,Swing"), skipped);
+        assertEquals(2, loaded.size());
+        assertEquals("1", loaded.get(0).getId());
+        assertEquals("", loaded.get(0).getDescription());
+        assertEquals("Low", loaded.get(1).getPriority());
+        assertEquals("2025-12-21", loaded.get(1).getDueDate().toString());
+    }
+
+    @Test
+    public void quotedFieldsMayHoldCommasQuotesAndLineBreaks() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            Task task = new Task(String.valueOf(i), "Judul, \"ke-" + i + "\"", "baris\n" + i + "\r\nakhir,",
+                    "Medium", "Pending", LocalDate.of(2025, 12, 1), i % 2 == 0 ? null : LocalDate.of(2025, 12, 24));
+            tasks.add(task);
+            csv.append(task.toCSV()).append('\n');
+        }
+        File file = tmp.newFile("tasks.csv");
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(file.toPath(), bytes);
+
+        // Chunks this small would start inside quoted line breaks if those were cut on.
+        Set<Long> recordEnds = new HashSet<>();
+        long end = 0;
+        for (Task task : tasks) {
+            end += (task.toCSV() + "\n").getBytes(StandardCharsets.UTF_8).length;
+            recordEnds.add(end);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<long[]> ranges = TaskFileLoader.splitOnRecords(channel, bytes.length, 97);
+            assertTrue(ranges.size() > 100);
+            for (long[] range : ranges) {
+                assertTrue(range[0] == 0 || recordEnds.contains(range[0]));
+            }
+            assertEquals(bytes.length, ranges.get(ranges.size() - 1)[1]);
+        }
+        List<Task> loaded = TaskFileLoader.load(file, 97, skipped -> fail(skipped));
+
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getTitle(), loaded.get(i).getTitle());
+            assertEquals(tasks.get(i).getDescription(), loaded.get(i).getDescription());
+            assertEquals(tasks.get(i).getDueDate(), loaded.get(i).getDueDate());
+            assertEquals(tasks.get(i).toCSV(), Task.fromCSV(tasks.get(i).toCSV()).toCSV());
+        }
+    }
+}
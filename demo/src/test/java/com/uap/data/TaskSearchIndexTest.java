@@ -0,0 +1,81 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.uap.model.Task;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TaskSearchIndexTest {
+    private static Task task(String id, String title, String description) {
+        return new Task(id, title, description, "Low", "Pending", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2));
+    }
+
+    @Test
+    public void matchesEveryTermAsPrefix() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.add(task("1", "Belajar Java", "Swing dan JTable"));
+        index.add(task("2", "Belajar Python", "Pandas"));
+        index.add(task("3", "Kerjakan UAP", "Laporan Java"));
+
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), index.search("bel"));
+        assertEquals(new HashSet<>(Arrays.asList("1", "3")), index.search("JAVA"));
+        assertEquals(new HashSet<>(Arrays.asList("1")), index.search("jav bel"));
+        assertTrue(index.search("(?i)[").isEmpty());
+    }
+
+    @Test
+    public void followsUpdatesAndRemovals() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        Task original = task("1", "Belajar Java", "");
+        index.add(original);
+
+        index.remove(original);
+        index.add(task("1", "Belajar Kotlin", ""));
+        assertTrue(index.search("java").isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("1")), index.search("kot"));
+
+        index.remove(task("1", "Belajar Kotlin", ""));
+        assertTrue(index.search("bel").isEmpty());
+    }
+
+    @Test
+    public void searchDoesNotWaitForAWriter() throws Exception {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.add(task("1", "Belajar Java", ""));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            // Holds the writers' lock as a long add would.
+            synchronized (index) {
+                writing.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        writer.start();
+        writing.await();
+
+        ExecutorService searcher = Executors.newSingleThreadExecutor();
+        try {
+            Set<String> found = searcher.submit(() -> index.search("java")).get(5, TimeUnit.SECONDS);
+            assertEquals(new HashSet<>(Arrays.asList("1")), found);
+        } finally {
+            done.countDown();
+            searcher.shutdown();
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.uap.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.uap.model.Task;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TaskTransferTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private DataManager open(String name) {
+        return new DataManager(new File(tmp.getRoot(), name), TaskJournal.DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    @Test
+    public void jsonLinesRoundTripKeepsEveryField() throws Exception {
+        DataManager source = open("source.csv");
+        source.addTask(new Task("1", "Quote \"this\"", "back\\slash\ttab", "High", "Pending",
+                LocalDate.of(2025, 1, 2), null));
+        source.addTask(new Task("2", "Plain", "", "Low", "Completed", LocalDate.of(2025, 1, 3),
+                LocalDate.of(2025, 2, 1)));
+        File export = new File(tmp.getRoot(), "tasks.jsonl");
+        assertEquals(2, TaskTransfer.exportTasks(source, export, TaskTransfer.Format.of(export), null));
+
+        DataManager target = open("target.csv");
+        TaskTransfer.Report report = TaskTransfer.importTasks(target, export, TaskTransfer.Format.JSONL, true,
+                Runnable::run, null);
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getSkipped());
+        for (Task task : source.getTasks()) {
+            assertEquals(task.toCSV(), target.findTask(task.getId()).toCSV());
+        }
+        source.close();
+        target.close();
+    }
+
+    @Test
+    public void badRowsAreSkippedAndReported() throws Exception {
+        File csv = tmp.newFile("import.csv");
+        Files.write(csv.toPath(), Arrays.asList(
+                "id,title,description,priority,status,created,due",
+                "7,Valid,ok,high,pending,2025-01-01,2025-01-05",
+                "8,,no title,Low,Pending,2025-01-01,2025-01-05",
+                "9,Bad priority,x,Urgent,Pending,2025-01-01,2025-01-05",
+                "10,Bad date,x,Low,Pending,2025-01-01,05/01/2025",
+                "11,Too short",
+                ",No id,x,Medium,Completed,,"));
+
+        DataManager dm = open("tasks.csv");
+        TaskTransfer.Report report = TaskTransfer.importTasks(dm, csv, TaskTransfer.Format.CSV, true, Runnable::run,
+                null);
+
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getSkipped());
+        assertTrue(report.getErrors().get(0).startsWith("line 3: title"));
+        assertTrue(report.getErrors().get(1).contains("Urgent"));
+        assertEquals(4, Files.readAllLines(report.getErrorFile().toPath()).size());
+        assertEquals("High", dm.findTask("7").getPriority());
+        // The row without an ID gets the next one after those already seen.
+        Task generated = dm.findTask("8");
+        assertEquals("No id", generated.getTitle());
+        assertNull(generated.getDueDate());
+        dm.close();
+    }
+
+    @Test
+    public void largeImportsCommitInBatches() throws Exception {
+        File jsonl = tmp.newFile("big.jsonl");
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (int i = 1; i <= 12000; i++) {
+            line.setLength(0);
+            JsonLines.write(new Task(String.valueOf(i), "Task " + i, "", "Medium", "Pending",
+                    LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 1)), line);
+            lines.add(line.toString());
+        }
+        Files.write(jsonl.toPath(), lines);
+
+        DataManager dm = open("tasks.csv");
+        dm.addTask(new Task("1", "Existing", "", "Low", "Pending", LocalDate.of(2025, 1, 1), null));
+        List<TaskChangeBatch> batches = new ArrayList<>();
+        dm.addChangeListener(batches::add);
+        List<TaskTransfer.Progress> progress = new ArrayList<>();
+
+        TaskTransfer.Report report = TaskTransfer.importTasks(dm, jsonl, TaskTransfer.Format.JSONL, false,
+                Runnable::run, progress::add);
+
+        assertEquals(12000, report.getImported());
+        assertEquals(12001, dm.countTasks());
+        assertEquals("Existing", dm.findTask("1").getTitle());
+        // At least one transaction per batch; more when a batch needs several turns.
+        assertTrue(batches.size() >= 3);
+        int events = 0;
+        for (TaskChangeBatch batch : batches) {
+            assertTrue(batch.getEvents().size() <= TaskTransfer.BATCH_SIZE);
+            events += batch.getEvents().size();
+        }
+        assertEquals(12000, events);
+        assertEquals(1.0, progress.get(progress.size() - 1).getFraction(), 0);
+        dm.close();
+    }
+
+    @Test
+    public void batchesAreAppliedInShortTurnsInFileOrder() throws Exception {
+        File csv = tmp.newFile("import.csv");
+        Files.write(csv.toPath(), Arrays.asList(
+                ",Needs an id,x,Low,Pending,2025-01-01,",
+                "5,Kept,x,Low,Pending,2025-01-01,",
+                "5,Kept again,x,Low,Pending,2025-01-01,",
+                ",Needs another,x,Low,Pending,2025-01-01,"));
+        DataManager dm = open("tasks.csv");
+        List<TaskChangeBatch> batches = new ArrayList<>();
+        dm.addChangeListener(batches::add);
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+
+        // No time at all: one row per turn, each its own transaction.
+        TaskTransfer.Report report = TaskTransfer.importTasks(dm, csv, TaskTransfer.Format.CSV, true, owner, null, 0);
+        owner.shutdown();
+
+        assertEquals(4, report.getImported());
+        assertEquals(4, batches.size());
+        assertEquals("Kept again", dm.findTask("5").getTitle());
+        assertEquals("Needs an id", dm.findTask("6").getTitle());
+        assertEquals("Needs another", dm.findTask("7").getTitle());
+        dm.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.uap.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100000; v++) {
+            histogram.record(v * 1000);
+        }
+
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertEquals(100000, s.getCount());
+        assertEquals(100_000_000, s.getMax());
+        assertWithin(50_000_000, s.percentile(0.50));
+        assertWithin(99_000_000, s.percentile(0.99));
+        assertWithin(99_900_000, s.percentile(0.999));
+        assertWithin(50_000_500, s.getMean());
+    }
+
+    @Test
+    public void bucketsCoverTheWholeRange() {
+        for (long v : new long[] { 0, 1, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE }) {
+            long value = LatencyHistogram.valueOf(LatencyHistogram.bucket(v));
+            assertTrue(v + " -> " + value, Math.abs(value - v) <= Math.max(1, v / 16));
+        }
+    }
+
+    @Test
+    public void metricsBeanIsRegisteredOnce() throws Exception {
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+        Metrics.timer("test.timer").record(5000);
+
+        Object timers = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(Metrics.OBJECT_NAME),
+                "Timers");
+        assertTrue(timers.toString().contains("test.timer"));
+        assertTrue(Metrics.dump().contains("test.timer"));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, Math.abs(actual - expected) <= expected / 16);
+    }
+}
@@ -0,0 +1,36 @@
+package com.uap.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.uap.model.Task;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class TaskGeneratorTest {
+    @Test
+    public void sameSeedGivesSameTasks() {
+        List<Task> first = new TaskGenerator(7).generate(200);
+        List<Task> second = new TaskGenerator(7).generate(200);
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).toCSV(), second.get(i).toCSV());
+        }
+    }
+
+    @Test
+    public void tasksSurviveCsvRoundTrip() {
+        int completed = 0;
+        for (Task task : new TaskGenerator(3).generate(2000)) {
+            Task parsed = Task.fromCSV(task.toCSV());
+            assertEquals(task.toCSV(), parsed.toCSV());
+            assertTrue(!task.getDueDate().isBefore(task.getCreatedDate()));
+            if ("Completed".equals(task.getStatus())) {
+                completed++;
+            }
+        }
+        assertTrue(completed > 200 && completed < 1800);
+    }
+}
@@ -0,0 +1,47 @@
+package com.uap.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.uap.metrics.Metrics;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EdtWatchdogTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void blockedEventIsLoggedWithItsStack() throws Exception {
+        File log = new File(tmp.getRoot(), "edt-stalls.log");
+        EdtWatchdog.install(100, log);
+        long stallsBefore = Metrics.counter("edt.stalls.EdtWatchdogTest").sum();
+
+        SwingUtilities.invokeAndWait(EdtWatchdogTest::blockEdt);
+        SwingUtilities.invokeAndWait(() -> {
+        });
+
+        String text = new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text, text.contains("EDT blocked for"));
+        assertTrue(text, text.contains("EdtWatchdogTest.blockEdt"));
+        assertTrue(text, text.contains("culprit: EdtWatchdogTest"));
+        assertEquals(stallsBefore + 1, Metrics.counter("edt.stalls.EdtWatchdogTest").sum());
+        assertTrue(Metrics.timer("edt.stall").snapshot().getCount() >= 1);
+    }
+
+    private static void blockEdt() {
+        try {
+            Thread.sleep(400);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.uap.ui;
+
+import static org.junit.Assert.assertEquals;
+
+import com.uap.data.DataManager;
+import com.uap.data.DurabilityPolicy;
+import com.uap.model.Task;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TaskRowSorterTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static Task task(String id, String title, String status) {
+        return new Task(id, title, "desc", "Medium", status, LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 24));
+    }
+
+    private static List<String> shownIds(DataManager dm, JTable table) {
+        List<String> ids = new ArrayList<>();
+        for (int row = 0; row < table.getRowCount(); row++) {
+            ids.add(dm.getIdAt(table.convertRowIndexToModel(row)));
+        }
+        return ids;
+    }
+
+    @Test
+    public void computeFiltersAndSortsOffTheTable() throws Exception {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv").getPath(),
+                DurabilityPolicy.everyCommit());
+        for (int i = 1; i <= 12; i++) {
+            dm.addTask(task(String.valueOf(i), "Task " + (i % 4), i % 3 == 0 ? "Completed" : "Pending")).get();
+        }
+
+        TaskRowSorter.View view = TaskRowSorter.compute(dm.snapshot(),
+                new HashSet<>(Arrays.asList("1", "2", "3", "10", "11")), "Pending",
+                Collections.singletonList(new RowSorter.SortKey(TaskTableModel.COL_ID, SortOrder.DESCENDING)));
+        TaskTableModel model = new TaskTableModel(dm);
+        JTable table = new JTable(model);
+        TaskRowSorter sorter = new TaskRowSorter(model, () -> {
+        });
+        table.setRowSorter(sorter);
+        sorter.apply(view);
+
+        // IDs order as numbers; 3 is completed.
+        assertEquals(dm.getVersion(), view.getVersion());
+        assertEquals(Arrays.asList("11", "10", "2", "1"), shownIds(dm, table));
+        dm.close();
+    }
+
+    @Test
+    public void changedRowsArePlacedWithoutANewView() throws Exception {
+        DataManager dm = new DataManager(new File(tmp.getRoot(), "tasks.csv").getPath(),
+                DurabilityPolicy.everyCommit());
+        TaskTableModel model = new TaskTableModel(dm);
+        dm.addChangeListener(model::tasksChanged);
+        JTable table = new JTable(model);
+        int[] stale = new int[1];
+        TaskRowSorter sorter = new TaskRowSorter(model, () -> stale[0]++);
+        table.setRowSorter(sorter);
+        List<RowSorter.SortKey> byTitle = Collections
+                .singletonList(new RowSorter.SortKey(1, SortOrder.ASCENDING));
+        sorter.setSortKeys(byTitle);
+        assertEquals(1, stale[0]);
+
+        dm.addTask(task("1", "delta", "Pending")).get();
+        dm.addTask(task("2", "bravo", "Pending")).get();
+        dm.addTask(task("3", "charlie", "Completed")).get();
+        sorter.apply(TaskRowSorter.compute(dm.snapshot(), null, "Pending", byTitle));
+        assertEquals(Arrays.asList("2", "1"), shownIds(dm, table));
+
+        dm.addTask(task("4", "alpha", "Pending")).get();
+        dm.addTask(task("5", "echo", "Completed")).get();
+        assertEquals(Arrays.asList("4", "2", "1"), shownIds(dm, table));
+
+        dm.updateTask("2", task("2", "foxtrot", "Pending")).get();
+        dm.updateTask("3", task("3", "charlie", "Pending")).get();
+        assertEquals(Arrays.asList("4", "3", "1", "2"), shownIds(dm, table));
+
+        // Swap-removes the last row into the hole.
+        dm.deleteTask("1").get();
+        assertEquals(Arrays.asList("4", "3", "2"), shownIds(dm, table));
+        assertEquals(1, stale[0]);
+        dm.close();
+    }
+}